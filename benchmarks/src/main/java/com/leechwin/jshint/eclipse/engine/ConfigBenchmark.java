@@ -0,0 +1,70 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Scriptable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The cost of turning the preferences into a {@link JsHintConfig}, and the config into the JavaScript objects that are
+ * passed to jshint. These replaced building the option objects on every lint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConfigBenchmark {
+
+    private Map<Option, String> values;
+
+    private JsHintConfig config;
+
+    private Function lintFunc;
+
+    private Context cx;
+
+    @Setup
+    public void setUp() {
+        values = DefaultOptions.values();
+        config = Corpus.defaultConfig();
+        lintFunc = new JsHintBuilder().fromDefault().getLintFunction();
+        cx = Context.enter();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Context.exit();
+    }
+
+    /** Parse the option values and work out the fingerprint. */
+    @Benchmark
+    public JsHintConfig snapshot() {
+        return new JsHintConfig(values, config.getGlobals(), config.getVersion());
+    }
+
+    /** Build the options and globals objects for one lint. */
+    @Benchmark
+    public void javaScriptObjects(Blackhole bh) {
+        Scriptable options = config.newOptionsObject(cx, lintFunc);
+        Scriptable globals = config.newGlobalsObject(cx, lintFunc);
+        bh.consume(options);
+        bh.consume(globals);
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * The JavaScript files that the benchmarks lint, one per size class. They are whole modules taken from the bundled
+ * jshint.js, so they are real code of the kind people lint.
+ */
+public final class Corpus {
+
+    private Corpus() {
+    }
+
+    /**
+     * Load a file of the corpus.
+     * @param size "small", "medium" or "large".
+     */
+    public static String load(String size) throws IOException {
+        String resource = "corpus/" + size + ".js";
+        InputStreamReader reader = new InputStreamReader(Corpus.class.getClassLoader().getResourceAsStream(resource),
+                Charset.forName("UTF-8"));
+        try {
+            return Util.readerToString(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /** The configuration that the plugin lints with by default. */
+    public static JsHintConfig defaultConfig() {
+        return new JsHintConfig(DefaultOptions.values(), JsHintConfig.parseGlobals("jQuery, $, define, require"),
+                new JsHintBuilder().getVersion());
+    }
+
+}
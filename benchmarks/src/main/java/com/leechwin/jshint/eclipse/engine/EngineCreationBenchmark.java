@@ -0,0 +1,49 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How long it takes to get a working engine from {@link JsHintBuilder#fromDefault()}, for each
+ * {@link ExecutionProfile}.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EngineCreationBenchmark {
+
+    @Param({ "FAST_START", "BALANCED", "MAX_THROUGHPUT" })
+    public String profile;
+
+    /**
+     * The first engine in a fresh JVM, which pays for compiling jshint.js. Each fork measures exactly one creation.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(10)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public JsHint cold() {
+        return new JsHintBuilder(ExecutionProfile.valueOf(profile)).fromDefault();
+    }
+
+    /** Every engine after the first, which reuses the compiled jshint.js and only runs it in a new scope. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Fork(2)
+    @Warmup(iterations = 5, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public JsHint warm() {
+        return new JsHintBuilder(ExecutionProfile.valueOf(profile)).fromDefault();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lint throughput of a single engine, for each size of file in the {@link Corpus} and each {@link ExecutionProfile}.
+ * Other backends on the classpath can be compared with <code>-p engine=&lt;id&gt;</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LintBenchmark {
+
+    @Param({ "small", "medium", "large" })
+    public String size;
+
+    @Param({ "FAST_START", "BALANCED", "MAX_THROUGHPUT" })
+    public String profile;
+
+    @Param({ LintEngines.DEFAULT })
+    public String engine;
+
+    private LintEngine lint;
+
+    private JsHintConfig config;
+
+    private String source;
+
+    @Setup
+    public void setUp() throws IOException {
+        LintEngineProvider provider = LintEngines.find(engine);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+        lint = provider.newEngine(ExecutionProfile.valueOf(profile));
+        config = Corpus.defaultConfig();
+        source = Corpus.load(size);
+    }
+
+    @Benchmark
+    public JsHintResult lint() {
+        return lint.lint(size + ".js", source, config, LintLimits.NONE);
+    }
+
+}
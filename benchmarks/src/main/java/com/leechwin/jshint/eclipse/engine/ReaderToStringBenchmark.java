@@ -0,0 +1,45 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading a whole source into a String with {@link Util#readerToString(java.io.Reader)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReaderToStringBenchmark {
+
+    @Param({ "small", "medium", "large" })
+    public String size;
+
+    private String source;
+
+    @Setup
+    public void setUp() throws IOException {
+        source = Corpus.load(size);
+    }
+
+    @Benchmark
+    public String readerToString() throws IOException {
+        return Util.readerToString(new StringReader(source));
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mozilla.javascript.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Copying the issues out of jshint's <code>errors</code> array into {@link Issue}s, without the lint itself. The
+ * array is left over from linting the file once during setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResultExtractionBenchmark {
+
+    @Param({ "small", "medium", "large" })
+    public String size;
+
+    private Function lintFunc;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsHint engine = new JsHintBuilder().fromDefault();
+        engine.lint(size + ".js", Corpus.load(size), Corpus.defaultConfig());
+        lintFunc = engine.getLintFunction();
+    }
+
+    @Benchmark
+    public List<Issue> readIssues() {
+        return JsHint.readIssues(lintFunc);
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class PathMatcherTest {
+
+    @Test
+    public void globsBecomeAnchoredRegexes() {
+        assertEquals("^/lib/[^/]*\\.js$", PathMatcher.globToRegex("/lib/*.js"));
+        assertEquals("^.*/[^/]*\\.min\\.js$", PathMatcher.globToRegex("**/*.min.js"));
+        assertEquals("^/a[^/]c$", PathMatcher.globToRegex("/a?c"));
+        assertEquals("^$", PathMatcher.globToRegex(""));
+    }
+
+    @Test
+    public void regexCharactersInGlobsAreLiteral() {
+        String glob = "/a+b/(c)/[d]/{e}/f|g/^h$/i-j\\k.js";
+        assertTrue(glob(glob).matcher(glob).matches());
+        assertFalse(glob(glob).matcher("/aab/c/d/e/f/h/i-j/k.js").matches());
+    }
+
+    @Test
+    public void singleStarStaysInOneFolder() {
+        Pattern pattern = glob("/lib/*.js");
+
+        assertTrue(pattern.matcher("/lib/a.js").find());
+        assertTrue(pattern.matcher("/lib/.js").find());
+        assertFalse(pattern.matcher("/lib/x/a.js").find());
+        assertFalse(pattern.matcher("/project/lib/a.js").find());
+    }
+
+    @Test
+    public void doubleStarCrossesFolders() {
+        Pattern pattern = glob("/p/lib/**");
+
+        assertTrue(pattern.matcher("/p/lib/a.js").find());
+        assertTrue(pattern.matcher("/p/lib/x/y/a.js").find());
+        assertFalse(pattern.matcher("/p/library/a.js").find());
+    }
+
+    @Test
+    public void questionMarkIsOneCharacterOfAName() {
+        Pattern pattern = glob("/a?.js");
+
+        assertTrue(pattern.matcher("/ab.js").find());
+        assertFalse(pattern.matcher("/a.js").find());
+        assertFalse(pattern.matcher("/a/.js").find());
+    }
+
+    @Test
+    public void globsAndRegexesMix() {
+        PathMatcher matcher = PathMatcher.compile("glob:**/*.min.js,/node_modules/");
+
+        assertEquals(2, matcher.getPatterns().size());
+        assertTrue(matcher.matches("/p/dist/app.min.js"));
+        assertTrue(matcher.matches("/p/node_modules/x/index.js"));
+        assertFalse(matcher.matches("/p/src/app.js"));
+    }
+
+    @Test
+    public void invalidPatternsAreLeftOutAndReported() {
+        PathMatcher matcher = PathMatcher.compile("/a(/,glob:/b/*.js");
+
+        assertEquals(1, matcher.getPatterns().size());
+        assertEquals(1, matcher.getInvalid().size());
+        assertTrue(matcher.getInvalid().containsKey("/a(/"));
+        assertTrue(matcher.matches("/b/c.js"));
+        assertFalse(matcher.matches("/a(/c.js"));
+    }
+
+    @Test
+    public void onlyInvalidPatternsMatchNothing() {
+        PathMatcher matcher = PathMatcher.compile("[");
+
+        assertEquals(0, matcher.getPatterns().size());
+        assertEquals(1, matcher.getInvalid().size());
+        assertFalse(matcher.matches("["));
+    }
+
+    @Test
+    public void backReferencesStillReferToTheirOwnGroup() {
+        PathMatcher matcher = PathMatcher.compile("/(a)b/,/(\\w+)/\\1/");
+
+        assertTrue(matcher.matches("/p/x/x/a.js"));
+        assertTrue(matcher.matches("/p/ab/c.js"));
+        assertFalse(matcher.matches("/p/x/y/a.js"));
+        assertFalse(matcher.matches("/p/a/a"));
+    }
+
+    @Test
+    public void backReferencesAreFoundOutsideClassesAndQuotes() {
+        assertTrue(PathMatcher.hasBackReference("(a)\\1"));
+        assertTrue(PathMatcher.hasBackReference("[a]\\\\(b)\\2"));
+        assertFalse(PathMatcher.hasBackReference("\\\\1"));
+        assertFalse(PathMatcher.hasBackReference("[\\1]"));
+        assertFalse(PathMatcher.hasBackReference("\\Q\\1\\E"));
+        assertFalse(PathMatcher.hasBackReference("(?<n>a)\\k<n>"));
+    }
+
+    @Test
+    public void sameGroupNamesAreCheckedOneByOne() {
+        PathMatcher matcher = PathMatcher.compile("/(?<n>a)\\k<n>/,/(?<n>b)/");
+
+        assertEquals(2, matcher.getPatterns().size());
+        assertTrue(matcher.matches("/aa/x.js"));
+        assertTrue(matcher.matches("/b/x.js"));
+        assertFalse(matcher.matches("/a/x.js"));
+    }
+
+    @Test
+    public void emptyListIsNone() {
+        assertSame(PathMatcher.NONE, PathMatcher.compile(null));
+        assertSame(PathMatcher.NONE, PathMatcher.compile(" "));
+        assertSame(PathMatcher.NONE, PathMatcher.compile(","));
+        assertFalse(PathMatcher.NONE.matches("/a.js"));
+    }
+
+    private static Pattern glob(String glob) {
+        return Pattern.compile(PathMatcher.globToRegex(glob));
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class RankedQueueTest {
+
+    /** The size of each file, by name; files that aren't listed are empty. */
+    private final Map<String, Long> sizes = new HashMap<String, Long>();
+
+    private final RankedQueue<String> queue = new RankedQueue<String>() {
+        @Override
+        protected long sizeOf(String file) {
+            Long size = sizes.get(file);
+            return size == null ? 0 : size;
+        }
+    };
+
+    @Test
+    public void fileIsOnlyQueuedOnce() {
+        queue.enqueue(Arrays.asList("a", "b"), RankedQueue.REST);
+        queue.enqueue(Arrays.asList("a"), RankedQueue.REST);
+
+        assertEquals(2, queue.size());
+        assertEquals(Arrays.asList("a", "b"), takeAll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void recentFilesComeBeforeTheRest() {
+        queue.enqueue(Arrays.asList("r1"), RankedQueue.REST);
+        queue.enqueue(Arrays.asList("c1", "c2"), RankedQueue.RECENT);
+        queue.enqueue(Arrays.asList("r2"), RankedQueue.REST);
+
+        assertEquals(Arrays.asList("c2", "c1", "r2", "r1"), takeAll());
+    }
+
+    @Test
+    public void restIsLargestFirst() {
+        sizes.put("small", 10L);
+        sizes.put("large", 1000L);
+        sizes.put("medium", 100L);
+        queue.enqueue(Arrays.asList("small", "large", "medium"), RankedQueue.REST);
+
+        assertEquals(Arrays.asList("large", "medium", "small"), takeAll());
+    }
+
+    @Test
+    public void recentIsLatestFirstWhateverTheSize() {
+        sizes.put("large", 1000L);
+        queue.enqueue(Arrays.asList("large", "small"), RankedQueue.RECENT);
+
+        assertEquals(Arrays.asList("small", "large"), takeAll());
+    }
+
+    @Test
+    public void enqueuingAgainOnlyMovesUp() {
+        queue.enqueue(Arrays.asList("a", "b"), RankedQueue.REST);
+        queue.enqueue(Arrays.asList("c"), RankedQueue.RECENT);
+        queue.enqueue(Arrays.asList("a"), RankedQueue.RECENT);
+        queue.enqueue(Arrays.asList("c"), RankedQueue.REST);
+
+        // "c" keeps its rank, but counts as enqueued last.
+        assertEquals(Arrays.asList("c", "a", "b"), takeAll());
+    }
+
+    @Test
+    public void editorsComeFirst() {
+        queue.enqueue(Arrays.asList("open", "visible", "other"), RankedQueue.REST);
+        queue.enqueue(Arrays.asList("recent"), RankedQueue.RECENT);
+        queue.editorsChanged(set("open", "visible"), set("visible"));
+
+        assertEquals(Arrays.asList("visible", "open", "recent", "other"), takeAll());
+    }
+
+    @Test
+    public void filesEnqueuedWhileOpenAreRanked() {
+        queue.editorsChanged(set("open", "visible"), set("visible"));
+        queue.enqueue(Arrays.asList("visible", "open", "other"), RankedQueue.REST);
+
+        assertEquals(Arrays.asList("visible", "open", "other"), takeAll());
+    }
+
+    @Test
+    public void closingAnEditorRestoresTheRank() {
+        queue.enqueue(Arrays.asList("a"), RankedQueue.REST);
+        queue.enqueue(Arrays.asList("b"), RankedQueue.RECENT);
+        queue.editorsChanged(set("a"), set("a"));
+        queue.editorsChanged(Collections.<String> emptySet(), Collections.<String> emptySet());
+
+        assertEquals(Arrays.asList("b", "a"), takeAll());
+    }
+
+    @Test
+    public void takeStopsAtTheLimit() {
+        queue.enqueue(Arrays.asList("a", "b", "c"), RankedQueue.RECENT);
+
+        assertEquals(Arrays.asList("c", "b"), files(queue.take(2)));
+        assertEquals(1, queue.size());
+        assertEquals(Arrays.asList("a"), files(queue.take(2)));
+        assertEquals(0, queue.take(2).size());
+    }
+
+    @Test
+    public void requeuedFilesKeepTheirPlace() {
+        queue.enqueue(Arrays.asList("a", "b", "c"), RankedQueue.RECENT);
+        List<RankedQueue.Entry<String>> taken = queue.take(2);
+        queue.requeue(taken);
+
+        assertEquals(Arrays.asList("c", "b", "a"), takeAll());
+    }
+
+    @Test
+    public void requeueSkipsFilesEnqueuedSince() {
+        queue.enqueue(Arrays.asList("a", "b"), RankedQueue.REST);
+        List<RankedQueue.Entry<String>> taken = queue.take(2);
+        queue.enqueue(Arrays.asList("a"), RankedQueue.RECENT);
+        queue.requeue(taken);
+
+        assertEquals(2, queue.size());
+        List<RankedQueue.Entry<String>> all = queue.take(10);
+        assertEquals(Arrays.asList("a", "b"), files(all));
+        assertEquals(RankedQueue.RECENT, all.get(0).rank);
+    }
+
+    @Test
+    public void removedFilesAreGone() {
+        queue.enqueue(Arrays.asList("a", "b", "c"), RankedQueue.REST);
+        queue.remove("b");
+        queue.remove("missing");
+
+        assertEquals(new HashSet<String>(Arrays.asList("a", "c")), new HashSet<String>(queue.files()));
+        assertEquals(Arrays.asList("c", "a"), takeAll());
+    }
+
+    private List<String> takeAll() {
+        return files(queue.take(Integer.MAX_VALUE));
+    }
+
+    private static List<String> files(List<RankedQueue.Entry<String>> entries) {
+        List<String> files = new ArrayList<String>();
+        for (RankedQueue.Entry<String> entry : entries) {
+            files.add(entry.file);
+        }
+        return files;
+    }
+
+    private static HashSet<String> set(String... files) {
+        return new HashSet<String>(Arrays.asList(files));
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsHintResultStoreTest {
+
+    /** Where the first record starts, after the magic number and format. */
+    private static final int FIRST_RECORD = 8;
+
+    private File directory;
+
+    private JsHintResultStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jshint-store").toFile();
+        store = new JsHintResultStore(directory, 100);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+        File[] files = directory.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void returnsWhatWasPut() throws IOException {
+        store.put("a", result(new Issue(3, 7, "Missing semicolon.", "(error)", "W033", 1),
+                new Issue(1, 1, "Unclosed string.", "(error)", null)));
+
+        List<Issue> issues = store.get("a").getIssues();
+        assertEquals(2, issues.size());
+        assertIssue(issues.get(0), 3, 7, "Missing semicolon.", "(error)", "W033", 1);
+        assertIssue(issues.get(1), 1, 1, "Unclosed string.", "(error)", null, 0);
+        assertNull(store.get("b"));
+    }
+
+    @Test
+    public void laterPutReplacesEarlier() throws IOException {
+        store.put("a", result(issue(1)));
+        store.put("a", result(issue(1), issue(2)));
+
+        assertEquals(1, store.size());
+        assertEquals(2, store.get("a").getIssues().size());
+    }
+
+    @Test
+    public void resultsOutliveTheStore() throws IOException {
+        store.put("a", result(issue(1)));
+        store.put("b", result());
+        reopen();
+
+        assertEquals(2, store.size());
+        assertEquals(1, store.get("a").getIssues().size());
+        assertEquals(0, store.get("b").getIssues().size());
+    }
+
+    @Test
+    public void leastRecentlyUsedAreDropped() throws IOException {
+        store.close();
+        store = new JsHintResultStore(directory, 2);
+        store.put("a", result(issue(1)));
+        store.put("b", result(issue(2)));
+        store.get("a");
+        store.put("c", result(issue(3)));
+
+        assertNotNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertNotNull(store.get("c"));
+    }
+
+    @Test
+    public void unknownHeaderStartsAfresh() throws IOException {
+        store.put("a", result(issue(1)));
+        store.close();
+        RandomAccessFile file = new RandomAccessFile(currentFile(), "rw");
+        try {
+            file.writeInt(0);
+        } finally {
+            file.close();
+        }
+        store = new JsHintResultStore(directory, 100);
+
+        assertEquals(0, store.size());
+        assertEquals(FIRST_RECORD, currentFile().length());
+    }
+
+    @Test
+    public void partlyWrittenRecordIsTruncated() throws IOException {
+        putThree();
+        store.close();
+        long length = currentFile().length();
+        RandomAccessFile file = new RandomAccessFile(currentFile(), "rw");
+        try {
+            file.setLength(length - 3);
+        } finally {
+            file.close();
+        }
+        store = new JsHintResultStore(directory, 100);
+
+        assertEquals(2, store.size());
+        assertNull(store.get("c"));
+        assertStillWritable();
+    }
+
+    @Test
+    public void keyLongerThanRecordIsCorrupt() throws IOException {
+        assertSecondRecordCorrupt(4, 1000);
+    }
+
+    @Test
+    public void negativeKeyLengthIsCorrupt() throws IOException {
+        assertSecondRecordCorrupt(4, -5);
+    }
+
+    @Test
+    public void hugeIssueCountIsCorrupt() throws IOException {
+        // After the record length, the key length and the one byte key.
+        assertSecondRecordCorrupt(9, 99999);
+    }
+
+    @Test
+    public void negativeIssueCountIsCorrupt() throws IOException {
+        assertSecondRecordCorrupt(9, -1);
+    }
+
+    @Test
+    public void negativeReasonLengthIsCorrupt() throws IOException {
+        // After the issue count, the line and the character.
+        assertSecondRecordCorrupt(21, -7);
+    }
+
+    @Test
+    public void compactionKeepsOnlyLiveRecords() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            store.put("a", result(issue(i)));
+            store.put("b", result(issue(i), issue(i + 1)));
+        }
+        long before = currentFile().length();
+        store.compact();
+
+        assertEquals(1, directory.listFiles().length);
+        assertTrue(currentFile().length() < before);
+        assertEquals(2, store.size());
+        assertIssue(store.get("a").getIssues().get(0), 49, 1, "reason 49", "(error)", "W049", 0);
+        store.put("c", result(issue(3)));
+        reopen();
+
+        assertEquals(3, store.size());
+        assertEquals(2, store.get("b").getIssues().size());
+        assertEquals(1, store.get("c").getIssues().size());
+    }
+
+    @Test
+    public void putsDuringCompactionAreKept() throws Exception {
+        reopen();
+        for (int i = 0; i < 2000; i++) {
+            store.put("old" + i, result(issue(i)));
+        }
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        store.put("new" + i, result(issue(i)));
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        writer.start();
+        store.compact();
+        writer.join();
+        reopen();
+
+        assertEquals(4000, store.size());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i, store.get("old" + i).getIssues().get(0).getLine());
+            assertEquals(i, store.get("new" + i).getIssues().get(0).getLine());
+        }
+    }
+
+    /**
+     * Overwrite an int in the second of three records, and check that reopening the store keeps the first record and
+     * drops the rest of the file.
+     * @param offset where to write, from the start of the record.
+     */
+    private void assertSecondRecordCorrupt(int offset, int value) throws IOException {
+        putThree();
+        store.close();
+        File current = currentFile();
+        byte[] bytes = Files.readAllBytes(current.toPath());
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        int second = FIRST_RECORD + 4 + buf.getInt(FIRST_RECORD);
+        buf.putInt(second + offset, value);
+        Files.write(current.toPath(), bytes);
+        store = new JsHintResultStore(directory, 100);
+
+        assertEquals(1, store.size());
+        assertNotNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertNull(store.get("c"));
+        assertEquals(second, current.length());
+        assertStillWritable();
+    }
+
+    private void assertStillWritable() throws IOException {
+        store.put("d", result(issue(1), issue(2)));
+        reopen();
+        assertEquals(2, store.get("d").getIssues().size());
+    }
+
+    private void putThree() throws IOException {
+        store.put("a", result(issue(1)));
+        store.put("b", result(issue(1), issue(2)));
+        store.put("c", result(issue(1)));
+    }
+
+    private void reopen() throws IOException {
+        store.close();
+        store = new JsHintResultStore(directory, 10000);
+    }
+
+    /** The store keeps a single generation of its file once it is open. */
+    private File currentFile() {
+        File[] files = directory.listFiles();
+        assertEquals(Arrays.toString(files), 1, files.length);
+        return files[0];
+    }
+
+    private static Issue issue(int line) {
+        return new Issue(line, 1, "reason " + line, "(error)", String.format("W%03d", line));
+    }
+
+    private static JsHintResult result(Issue... issues) {
+        return new JsHintResult(new ArrayList<Issue>(Arrays.asList(issues)), false, 0);
+    }
+
+    private static void assertIssue(Issue issue, int line, int character, String reason, String id, String code,
+            int length) {
+        assertEquals(line, issue.getLine());
+        assertEquals(character, issue.getCharacter());
+        assertEquals(reason, issue.getReason());
+        assertEquals(id, issue.getId());
+        assertEquals(code, issue.getCode());
+        assertEquals(length, issue.getLength());
+    }
+
+}
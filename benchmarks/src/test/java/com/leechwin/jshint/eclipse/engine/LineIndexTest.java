@@ -0,0 +1,131 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LineIndexTest {
+
+    @Test
+    public void linesEndAtEveryKindOfTerminator() {
+        LineIndex lines = LineIndex.of("ab\ncd\r\nef\rgh");
+
+        assertEquals(4, lines.getLineCount());
+        assertEquals(0, lines.getLineStart(1));
+        assertEquals(2, lines.getLineEnd(1));
+        assertEquals(3, lines.getLineStart(2));
+        assertEquals(5, lines.getLineEnd(2));
+        assertEquals(7, lines.getLineStart(3));
+        assertEquals(9, lines.getLineEnd(3));
+        assertEquals(10, lines.getLineStart(4));
+        assertEquals(12, lines.getLineEnd(4));
+    }
+
+    @Test
+    public void trailingTerminatorStartsAnEmptyLine() {
+        LineIndex lines = LineIndex.of("a\r\n");
+
+        assertEquals(2, lines.getLineCount());
+        assertEquals(1, lines.getLineEnd(1));
+        assertEquals(3, lines.getLineStart(2));
+        assertEquals(3, lines.getLineEnd(2));
+    }
+
+    @Test
+    public void crlfSplitAcrossChunksIsOneTerminator() {
+        char[] text = "ab\r\ncd\r".toCharArray();
+        LineIndex.Builder builder = new LineIndex.Builder();
+        builder.scan(text, 0, 3);
+        builder.scan(text, 3, text.length);
+        LineIndex lines = builder.build();
+
+        assertEquals(3, lines.getLineCount());
+        assertEquals(2, lines.getLineEnd(1));
+        assertEquals(4, lines.getLineStart(2));
+        assertEquals(6, lines.getLineEnd(2));
+        assertEquals(7, lines.getLineStart(3));
+    }
+
+    @Test
+    public void columnsWithoutTabsAreOffsets() {
+        LineIndex lines = LineIndex.of("var a;\nvar b;");
+
+        assertEquals(0, lines.offsetOf(1, 1));
+        assertEquals(4, lines.offsetOf(1, 5));
+        assertEquals(11, lines.offsetOf(2, 5));
+    }
+
+    @Test
+    public void tabsCountAsTheTabWidth() {
+        // jshint reports the "a" at column 14: two tabs of 4, then "var  ".
+        LineIndex lines = LineIndex.of("\t\tvar  a = 1;");
+
+        assertEquals(7, lines.offsetOf(1, 14));
+        assertEquals(2, lines.offsetOf(1, 9));
+        assertEquals(7, lines.offsetOf(1, 8, 1));
+    }
+
+    @Test
+    public void tabsInTheMiddleOfALineCount() {
+        LineIndex lines = LineIndex.of("x\na =\tb;\t// c");
+
+        assertEquals(2, lines.offsetOf(2, 1));
+        assertEquals(5, lines.offsetOf(2, 4));
+        assertEquals(6, lines.offsetOf(2, 8));
+        assertEquals(8, lines.offsetOf(2, 13));
+        assertEquals(9, lines.offsetOf(2, 14));
+    }
+
+    @Test
+    public void columnsWithinATabAreTheTab() {
+        LineIndex lines = LineIndex.of("\tx");
+
+        assertEquals(0, lines.offsetOf(1, 1));
+        assertEquals(0, lines.offsetOf(1, 4));
+        assertEquals(1, lines.offsetOf(1, 5));
+    }
+
+    @Test
+    public void columnsPastTheEndAreTheLastCharacter() {
+        LineIndex lines = LineIndex.of("ab\r\n\r\ncd");
+
+        assertEquals(1, lines.offsetOf(1, 40));
+        assertEquals(4, lines.offsetOf(2, 3));
+        assertEquals(6, lines.offsetOf(3, 0));
+    }
+
+    @Test
+    public void missingLinesHaveNoOffset() {
+        LineIndex lines = LineIndex.of("a\nb");
+
+        assertEquals(-1, lines.offsetOf(0, 1));
+        assertEquals(-1, lines.offsetOf(3, 1));
+    }
+
+    @Test
+    public void rangesStopAtTheEndOfTheLine() {
+        LineIndex lines = LineIndex.of("if (a == b)\r\nc();");
+
+        assertEquals(7, lines.endOf(1, 5, 2));
+        assertEquals(6, lines.endOf(1, 5, 0));
+        assertEquals(11, lines.endOf(1, 9, 10));
+    }
+
+    @Test
+    public void rangesOnEmptyLinesAreEmpty() {
+        LineIndex lines = LineIndex.of("a\n\nb");
+
+        assertEquals(2, lines.offsetOf(2, 1));
+        assertEquals(2, lines.endOf(2, 2, 3));
+    }
+
+    @Test
+    public void indexOfFindsAColumnInOneLine() {
+        assertEquals(0, LineIndex.indexOf("\tfoo", 1, 4));
+        assertEquals(1, LineIndex.indexOf("\tfoo", 5, 4));
+        assertEquals(3, LineIndex.indexOf("\tfoo", 7, 4));
+        assertEquals(4, LineIndex.indexOf("\tfoo", 8, 4));
+        assertEquals(2, LineIndex.indexOf("\tfoo", 3, 1));
+    }
+
+}
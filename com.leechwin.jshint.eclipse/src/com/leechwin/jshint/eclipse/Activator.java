@@ -1,13 +1,33 @@
 package com.leechwin.jshint.eclipse;
 
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.eclipse.ui.preferences.ScopedPreferenceStore;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.util.tracker.ServiceTracker;
+import org.osgi.util.tracker.ServiceTrackerCustomizer;
+
+import com.leechwin.jshint.eclipse.builder.JsHintProvider;
+import com.leechwin.jshint.eclipse.builder.JsHintWarmUpJob;
+import com.leechwin.jshint.eclipse.engine.LintEngineProvider;
+import com.leechwin.jshint.eclipse.engine.LintEngines;
+import com.leechwin.jshint.eclipse.engine.LintMetrics;
+import com.leechwin.jshint.eclipse.ui.EditorTracker;
 
 /**
- * The activator class controls the plug-in life cycle
+ * The activator class controls the plug-in life cycle. Starting the bundle does nothing else: the lint provider and
+ * everything around it are only set up when the provider is first asked for, and open editors are only tracked once a
+ * project with the JSHint nature turns up.
  */
 public class Activator extends AbstractUIPlugin {
 
@@ -19,6 +39,14 @@ public class Activator extends AbstractUIPlugin {
 
     private IPreferenceStore preferenceStore;
 
+    private JsHintProvider jsHintProvider;
+
+    private JsHintWarmUpJob warmUpJob;
+
+    private ServiceTracker<LintEngineProvider, LintEngineProvider> engineTracker;
+
+    private boolean trackingEditors;
+
     /**
      * The constructor
      */
@@ -31,10 +59,88 @@ public class Activator extends AbstractUIPlugin {
     }
 
     public void stop(BundleContext context) throws Exception {
+        synchronized (this) {
+            if (jsHintProvider != null) {
+                warmUpJob.cancel();
+                engineTracker.close();
+                unregisterMetrics();
+                jsHintProvider.dispose();
+            }
+        }
         plugin = null;
         super.stop(context);
     }
 
+    /**
+     * Make lint backends that other bundles offer as OSGi services available through {@link LintEngines}, for as long
+     * as the services are.
+     */
+    private void trackEngines(final BundleContext context) {
+        engineTracker = new ServiceTracker<LintEngineProvider, LintEngineProvider>(context, LintEngineProvider.class,
+                new ServiceTrackerCustomizer<LintEngineProvider, LintEngineProvider>() {
+                    public LintEngineProvider addingService(ServiceReference<LintEngineProvider> reference) {
+                        LintEngineProvider provider = context.getService(reference);
+                        if (provider == null) {
+                            return null;
+                        }
+                        if (LintEngines.register(provider)) {
+                            JsHintLog.info("Lint backend %s added", provider.getId());
+                            enginesChanged();
+                        } else {
+                            JsHintLog.info("Lint backend %s ignored; there is already one by that id",
+                                    provider.getId());
+                        }
+                        return provider;
+                    }
+
+                    public void modifiedService(ServiceReference<LintEngineProvider> reference,
+                            LintEngineProvider provider) {
+                    }
+
+                    public void removedService(ServiceReference<LintEngineProvider> reference,
+                            LintEngineProvider provider) {
+                        if (LintEngines.unregister(provider)) {
+                            JsHintLog.info("Lint backend %s removed", provider.getId());
+                            enginesChanged();
+                        }
+                        context.ungetService(reference);
+                    }
+                });
+        engineTracker.open();
+    }
+
+    /** Let the lint provider switch backends, if it has been created. */
+    private synchronized void enginesChanged() {
+        if (jsHintProvider != null) {
+            jsHintProvider.enginesChanged();
+        }
+    }
+
+    /** Make the lint metrics visible over JMX. Failure is logged, as the plugin works fine without it. */
+    private void registerMetrics() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(LintMetrics.OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(LintMetrics.getInstance(), name);
+            }
+        } catch (JMException e) {
+            JsHintLog.error("Unable to register the lint metrics MBean", e);
+        }
+    }
+
+    private void unregisterMetrics() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(LintMetrics.OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            JsHintLog.error("Unable to unregister the lint metrics MBean", e);
+        }
+    }
+
     /**
      * Returns the shared instance
      * @return the shared instance
@@ -52,4 +158,44 @@ public class Activator extends AbstractUIPlugin {
         return preferenceStore;
     }
 
+    /**
+     * Returns the lint provider shared by all builders. The first call also publishes the lint metrics, starts
+     * tracking lint backends and warms up an engine.
+     * @return the shared lint provider
+     */
+    public synchronized JsHintProvider getJsHintProvider() {
+        if (jsHintProvider == null) {
+            registerMetrics();
+            // Before the provider is created, so that it can choose from the backends already offered.
+            trackEngines(getBundle().getBundleContext());
+            jsHintProvider = new JsHintProvider();
+            jsHintProvider.init();
+            warmUpJob = new JsHintWarmUpJob(jsHintProvider);
+            warmUpJob.schedule();
+        }
+        return jsHintProvider;
+    }
+
+    /**
+     * Start linting open JavaScript editors, unless that has already started or there is no workbench. Called when a
+     * project with the JSHint nature is first seen.
+     */
+    public void startEditorTracking() {
+        if (!PlatformUI.isWorkbenchRunning()) {
+            return;
+        }
+        synchronized (this) {
+            if (trackingEditors) {
+                return;
+            }
+            trackingEditors = true;
+        }
+        final IWorkbench workbench = PlatformUI.getWorkbench();
+        workbench.getDisplay().asyncExec(new Runnable() {
+            public void run() {
+                new EditorTracker().install(workbench);
+            }
+        });
+    }
+
 }
@@ -0,0 +1,72 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Remember the charset of each file, as given by {@link IFile#getCharset()}, until the file is modified. That takes
+ * the explicit setting, the content type and the content itself into account, and inherits from the file's folders
+ * and project otherwise, so it is worth not asking again for a file that hasn't changed.
+ */
+public class CharsetCache {
+
+    private static final class Entry {
+        final long stamp;
+        final Charset charset;
+
+        Entry(long stamp, Charset charset) {
+            this.stamp = stamp;
+            this.charset = charset;
+        }
+    }
+
+    private final Map<IPath, Entry> charsets = new ConcurrentHashMap<IPath, Entry>();
+
+    /**
+     * @return the charset to read {@code file} with.
+     * @throws UnsupportedEncodingException if the charset isn't available in this JVM.
+     */
+    public Charset charsetOf(IFile file) throws CoreException, UnsupportedEncodingException {
+        long stamp = file.getModificationStamp();
+        Entry entry = charsets.get(file.getFullPath());
+        if (entry != null && entry.stamp == stamp) {
+            return entry.charset;
+        }
+        Charset charset = forName(file.getCharset());
+        if (stamp != IResource.NULL_STAMP) {
+            charsets.put(file.getFullPath(), new Entry(stamp, charset));
+        }
+        return charset;
+    }
+
+    /** Forget the charset of the file or everything in the folder at {@code path}, which has changed or been removed. */
+    public void remove(IPath path) {
+        for (Iterator<IPath> it = charsets.keySet().iterator(); it.hasNext();) {
+            if (path.isPrefixOf(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+    /** Forget every file's charset. */
+    public void clear() {
+        charsets.clear();
+    }
+
+    private static Charset forName(String name) throws UnsupportedEncodingException {
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedEncodingException(name);
+        }
+    }
+
+}
@@ -1,10 +1,12 @@
 package com.leechwin.jshint.eclipse.builder;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
@@ -13,14 +15,17 @@ import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
 import com.leechwin.jshint.eclipse.Activator;
+import com.leechwin.jshint.eclipse.JsHintLog;
 
 /**
  * Maintain the list of paths to exclude from linting. Will be automatically updated when the prefs value changes.
+ * The list is held as an immutable {@link PathMatcher}, which is replaced as a whole, so it can be used from several
+ * threads at once.
  */
 public class Excluder {
     public static final String EXCLUDE_PATH_REGEXES_PREFERENCE = "exclude_path_regexes";
 
-    private final List<Pattern> excludes = new ArrayList<Pattern>();
+    private volatile PathMatcher excludes = PathMatcher.NONE;
 
     public void init() {
         readPref();
@@ -29,20 +34,20 @@ public class Excluder {
 
     /** Return the list of patterns to exclude from linting. */
     public List<Pattern> getExcludes() {
-        return new ArrayList<Pattern>(excludes);
+        return excludes.getPatterns();
     }
 
     /** Should {@code file} be excluded from linting? */
     public boolean isExcluded(IFile file) {
-        String filePath = file.getFullPath().toString();
-        if (!excludes.isEmpty()) {
-            for (Pattern p : excludes) {
-                if (p.matcher(filePath).find()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return excludes.matches(file.getFullPath().toString());
+    }
+
+    /**
+     * Should everything in {@code folder} be excluded from linting? The folder's path is matched with a trailing "/",
+     * so a pattern such as "/node_modules/" excludes the folder without its contents ever being visited.
+     */
+    public boolean isExcludedFolder(IResource folder) {
+        return excludes.matches(folder.getFullPath().toString() + "/");
     }
 
     private void monitor() {
@@ -57,14 +62,11 @@ public class Excluder {
     }
 
     private void parsePref(String pref) {
-        excludes.clear();
-        if (pref.isEmpty()) {
-            return;
-        }
-        for (String path : pref.split(",")) {
-            excludes.add(Pattern.compile(path));
+        PathMatcher matcher = PathMatcher.compile(pref);
+        for (Map.Entry<String, PatternSyntaxException> invalid : matcher.getInvalid().entrySet()) {
+            JsHintLog.error("Ignoring invalid exclude pattern " + invalid.getKey(), invalid.getValue());
         }
-
+        excludes = matcher;
     }
 
     private void readPref() {
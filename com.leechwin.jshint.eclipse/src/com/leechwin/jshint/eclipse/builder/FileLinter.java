@@ -0,0 +1,147 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.engine.JsHintConfig;
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+import com.leechwin.jshint.eclipse.engine.JsHintResultCache;
+import com.leechwin.jshint.eclipse.engine.LintEvent;
+import com.leechwin.jshint.eclipse.engine.LintMetrics;
+import com.leechwin.jshint.eclipse.engine.LintSource;
+
+/**
+ * Read and lint workspace files. Remembers the cache key of each file's result until the file goes away. Safe to use
+ * from several threads at once.
+ */
+public class FileLinter {
+
+    private final JsHintProvider lintProvider;
+
+    private final CharsetCache charsets = new CharsetCache();
+
+    /** The key of the cached result of each file linted. */
+    private final Map<IPath, String> resultKeys = new ConcurrentHashMap<IPath, String>();
+
+    public FileLinter(JsHintProvider lintProvider) {
+        this.lintProvider = lintProvider;
+    }
+
+    /**
+     * Run lint over the contents of {@code file}, unless an identical file has already been linted with the same
+     * configuration. Minified and oversized files are dealt with according to {@code filter}. Does not touch any
+     * markers.
+     * @param size the size of {@code file} in bytes.
+     * @return the result, null if the file was skipped, or {@link LintedFile#FAILED} if it could not be read or linted.
+     */
+    public LintedFile lint(IFile file, long size, MinifiedFileFilter filter) {
+        try {
+            MinifiedFileFilter.Kind kind = filter.classify(size);
+            if (kind != MinifiedFileFilter.Kind.NORMAL && filter.getMode() == MinifiedFileFilter.Mode.SKIP) {
+                // Don't even read it.
+                filter.filtered(size);
+                return null;
+            }
+            long readStart = System.nanoTime();
+            LintEvent readEvent = LintEvent.begin(LintEvent.Phase.READ);
+            LintSource source = readContents(file);
+            readEvent.end();
+            LintMetrics.getInstance().fileRead(size, System.nanoTime() - readStart);
+            kind = filter.classify(size, source.getLines());
+            JsHintConfig config = filter.configFor(kind);
+            if (kind != MinifiedFileFilter.Kind.NORMAL) {
+                filter.filtered(size);
+                if (config == null) {
+                    readEvent.file(file.getFullPath().toString(), size, 0).commit();
+                    return null;
+                }
+            }
+            String key = JsHintResultCache.key(source.getText(), config.getFingerprint());
+            resultKeys.put(file.getFullPath(), key);
+            JsHintResult result = lintProvider.lint(file.getFullPath().toString(), key, source.getText(), config);
+            if (kind != MinifiedFileFilter.Kind.NORMAL && filter.getMode() == MinifiedFileFilter.Mode.SYNTAX) {
+                result = result.errorsOnly();
+            }
+            readEvent.file(file.getFullPath().toString(), size, result.getIssues().size()).commit();
+            return new LintedFile(result, source.getLines());
+        } catch (ClosedByInterruptException e) {
+            // Canceled while the file was being read.
+        } catch (IOException e) {
+            JsHintLog.error(e);
+        } catch (CoreException e) {
+            JsHintLog.error(e);
+        }
+        return LintedFile.FAILED;
+    }
+
+    /**
+     * Read all of {@code file} into memory, using its charset. Local files are read straight from disk, anything else
+     * through the workspace.
+     */
+    private LintSource readContents(IFile file) throws CoreException, IOException {
+        Charset charset = charsets.charsetOf(file);
+        IPath location = file.getLocation();
+        if (location != null) {
+            File local = location.toFile();
+            if (local.isFile()) {
+                return LintSource.read(local, charset);
+            }
+        }
+        InputStream in = file.getContents();
+        try {
+            return LintSource.read(in, charset, 0);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    /** The size of {@code file} on disk, or zero if it isn't stored locally. */
+    public static long sizeOf(IFile file) {
+        IPath location = file.getLocation();
+        return location == null ? 0 : location.toFile().length();
+    }
+
+    /** Forget the charset of every file, as the workspace's default encoding has changed. */
+    public void charsetsChanged() {
+        charsets.clear();
+    }
+
+    /** Forget the charset of {@code resource} and of every file in it, as its encoding has changed. */
+    public void charsetsChanged(IResource resource) {
+        charsets.remove(resource.getFullPath());
+    }
+
+    /**
+     * Discard anything remembered about {@code resource} and, if it is a folder or project, everything in it. Cached
+     * results are left for the cache to drop when they are least recently used, as any file with the same contents
+     * shares them.
+     */
+    public void forget(IResource resource) {
+        charsets.remove(resource.getFullPath());
+        if (resource instanceof IFile) {
+            resultKeys.remove(resource.getFullPath());
+            return;
+        }
+        for (Iterator<IPath> it = resultKeys.keySet().iterator(); it.hasNext();) {
+            if (resource.getFullPath().isPrefixOf(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+}
@@ -1,13 +1,13 @@
 package com.leechwin.jshint.eclipse.builder;
 
-import java.io.BufferedReader;
-import java.io.Closeable;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
@@ -17,38 +17,51 @@ import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 import com.leechwin.jshint.eclipse.Activator;
 import com.leechwin.jshint.eclipse.JsHintLog;
-import com.leechwin.jshint.eclipse.engine.Issue;
-import com.leechwin.jshint.eclipse.engine.JsHint;
-import com.leechwin.jshint.eclipse.engine.JsHintResult;
+import com.leechwin.jshint.eclipse.engine.LintEvent;
 
 public class JsHintBuilder extends IncrementalProjectBuilder {
 
     private class JsHintDeltaVisitor implements IResourceDeltaVisitor {
+        private final List<IFile> files;
         private final IProgressMonitor monitor;
 
-        public JsHintDeltaVisitor(IProgressMonitor monitor) {
+        public JsHintDeltaVisitor(List<IFile> files, IProgressMonitor monitor) {
+            this.files = files;
             this.monitor = monitor;
         }
 
         public boolean visit(IResourceDelta delta) throws CoreException {
+            checkCanceled(monitor);
             IResource resource = delta.getResource();
             switch (delta.getKind()) {
             case IResourceDelta.ADDED:
                 // handle added resource
-                logProgress(monitor, resource);
-                checkJavaScript(resource);
+                if (scope.prune(resource)) {
+                    return false;
+                }
+                addJavaScript(resource, files);
                 break;
             case IResourceDelta.REMOVED:
                 // handle removed resource
+                forget(resource);
                 break;
             case IResourceDelta.CHANGED:
-                // handle changed resource
-                logProgress(monitor, resource);
-                checkJavaScript(resource);
+                // handle changed resource, unless only its markers changed.
+                if ((delta.getFlags() & IResourceDelta.ENCODING) != 0) {
+                    fileLinter.charsetsChanged(resource);
+                }
+                if (scope.prune(resource)) {
+                    return false;
+                }
+                if ((delta.getFlags() & ~IResourceDelta.MARKERS) != 0) {
+                    addJavaScript(resource, files);
+                }
                 break;
             }
             // return true to continue visiting children.
@@ -57,15 +70,25 @@ public class JsHintBuilder extends IncrementalProjectBuilder {
     }
 
     private class JsHintResourceVisitor implements IResourceVisitor {
+        private final List<IFile> files;
         private final IProgressMonitor monitor;
 
-        public JsHintResourceVisitor(IProgressMonitor monitor) {
+        public JsHintResourceVisitor(List<IFile> files, IProgressMonitor monitor) {
+            this.files = files;
             this.monitor = monitor;
         }
 
-        public boolean visit(IResource resource) {
-            logProgress(monitor, resource);
-            checkJavaScript(resource);
+        public boolean visit(IResource resource) throws CoreException {
+            checkCanceled(monitor);
+            if (scope.prune(resource)) {
+                if (scopeChanged) {
+                    // Drop any markers or queued lints left from before it was pruned, without visiting its contents.
+                    resource.deleteMarkers(MARKER_TYPE, true, IResource.DEPTH_INFINITE);
+                    forget(resource);
+                }
+                return false;
+            }
+            addJavaScript(resource, files);
             // return true to continue visiting children.
             return true;
         }
@@ -77,33 +100,37 @@ public class JsHintBuilder extends IncrementalProjectBuilder {
     // NB! Must match plugin.xml declaration.
     public static final String MARKER_TYPE = Activator.PLUGIN_ID + ".JSHintProblem";
 
-    private final JsHintProvider lintProvider = new JsHintProvider();
-    private final Excluder excluder = new Excluder();
-
-    public JsHintBuilder() {
-        lintProvider.init();
-        excluder.init();
-    }
-
-    private void addMarker(IFile file, Issue issue) {
-        try {
-            IMarker m = file.createMarker(MARKER_TYPE);
-            if (m.exists()) {
-                m.setAttribute(IMarker.MESSAGE, issue.getReason());
-                m.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
-                m.setAttribute(IMarker.LINE_NUMBER, issue.getLine());
-                m.setAttribute(IMarker.SOURCE_ID, "JSHint");
-            }
-        } catch (CoreException e) {
-            JsHintLog.error(e);
-        }
-    }
+    private final JsHintProvider lintProvider = Activator.getDefault().getJsHintProvider();
+    private final LintScope scope = lintProvider.getLintScope();
+    private final FileLinter fileLinter = lintProvider.getFileLinter();
+    private final LintQueueJob lintQueueJob = lintProvider.getLintQueueJob();
+    /** The include roots and exclusions in force at the start of the current build. */
+    private List<IPath> includeRoots = Collections.emptyList();
+    private List<Pattern> excludes = Collections.emptyList();
+    /** The include roots and exclusions of the last build that saw the whole project, or null before there was one. */
+    private List<IPath> lastIncludeRoots;
+    private List<Pattern> lastExcludes;
+    /**
+     * Have the include roots or exclusions changed since the last build? If so, the whole project is visited again,
+     * and whatever is pruned loses its markers.
+     */
+    private boolean scopeChanged;
+    /** How many files the current build has queued. */
+    private int queued;
 
     @Override
     protected IProject[] build(final int kind, @SuppressWarnings("rawtypes") Map args, IProgressMonitor monitor) throws CoreException {
+        // This project has the nature, so its open editors should be linted too.
+        Activator.getDefault().startEditorTracking();
+        includeRoots = scope.getIncludeRoots();
+        excludes = scope.getExcludes();
+        scopeChanged = lastIncludeRoots != null
+                && (!includeRoots.equals(lastIncludeRoots) || !excludes.equals(lastExcludes));
+        queued = 0;
+        LintEvent event = LintEvent.begin(LintEvent.Phase.BUILD);
         ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
             public void run(IProgressMonitor monitor) throws CoreException {
-                if (kind == FULL_BUILD) {
+                if (kind == FULL_BUILD || scopeChanged) {
                     fullBuild(monitor);
                 } else {
                     IResourceDelta delta = getDelta(getProject());
@@ -115,76 +142,83 @@ public class JsHintBuilder extends IncrementalProjectBuilder {
                 }
             }
         }, monitor);
+        event.build(kind == FULL_BUILD ? "full" : "incremental", getProject().getName(), queued).commit();
         return null;
     }
 
-    private void checkJavaScript(IResource resource) {
-        if (!(resource instanceof IFile)) {
-            return;
-        }
+    /**
+     * Drop all of the project's markers in one go, along with everything remembered or queued about its files.
+     */
+    @Override
+    protected void clean(IProgressMonitor monitor) throws CoreException {
+        lintQueueJob.cleaned(getProject());
+        fileLinter.forget(getProject());
+        getProject().deleteMarkers(MARKER_TYPE, true, IResource.DEPTH_INFINITE);
+    }
 
-        IFile file = (IFile) resource;
-        if (!isJavaScript(file)) {
-            return;
+    /** Discard anything remembered or queued about {@code resource}, which has been removed or pruned. */
+    private void forget(IResource resource) {
+        if (resource instanceof IFile) {
+            lintQueueJob.getQueue().remove((IFile) resource);
+        } else if (resource instanceof IContainer) {
+            lintQueueJob.getQueue().removeAll((IContainer) resource);
         }
+        fileLinter.forget(resource);
+    }
 
-        // Clear out any existing problems.
-        deleteMarkers(file);
-
-        if (excluded(file)) {
-            return;
-        }
-
-        BufferedReader reader = null;
-        try {
-            JsHint lint = lintProvider.getJsHint();
-            reader = new BufferedReader(new InputStreamReader(file.getContents(), file.getCharset()));
-            JsHintResult result = lint.lint(file.getFullPath().toString(), reader);
-            for (Issue issue : result.getIssues()) {
-                addMarker(file, issue);
-            }
-        } catch (IOException e) {
-            JsHintLog.error(e);
-        } catch (CoreException e) {
-            JsHintLog.error(e);
-        } finally {
-            close(reader);
+    /** Add {@code resource} to {@code files} if it is a JavaScript file. */
+    private void addJavaScript(IResource resource, List<IFile> files) {
+        if (resource instanceof IFile && isJavaScript((IFile) resource)) {
+            files.add((IFile) resource);
         }
     }
 
     /**
-     * Is {@code file} explicitly excluded? Check against a list of regexes in the <i>exclude_path_regexes</i> preference.
+     * Queue {@code files} to be linted in the background, other than those that are excluded, whose markers are removed
+     * straight away. The build doesn't wait for the lints; their markers show up as they finish.
+     * @param rank how urgently the files should be linted, relative to those already queued.
      */
-    private boolean excluded(IFile file) {
-        return excluder.isExcluded(file);
+    private void checkJavaScript(List<IFile> files, int rank) throws CoreException {
+        List<IFile> included = new ArrayList<IFile>();
+        MarkerUpdater markers = new MarkerUpdater(MARKER_TYPE);
+        for (IFile file : files) {
+            if (excluded(file)) {
+                lintQueueJob.getQueue().remove(file);
+                markers.update(file, null);
+            } else {
+                included.add(file);
+            }
+        }
+        markers.flush();
+        lintQueueJob.enqueue(included, rank);
+        queued += included.size();
     }
 
-    private boolean isJavaScript(IFile file) {
-        return file.getName().endsWith(".js");
+    private void checkCanceled(IProgressMonitor monitor) {
+        if (monitor.isCanceled() || isInterrupted()) {
+            throw new OperationCanceledException();
+        }
     }
 
-    private void close(Closeable close) {
-        if (close == null) {
-            return;
-        }
-        try {
-            close.close();
-        } catch (IOException e) {
-        }
+    /** Is {@code file} explicitly excluded? */
+    private boolean excluded(IFile file) {
+        return scope.isExcluded(file);
     }
 
-    private void deleteMarkers(IFile file) {
-        try {
-            file.deleteMarkers(MARKER_TYPE, false, IResource.DEPTH_ZERO);
-        } catch (CoreException e) {
-            JsHintLog.error(e);
-        }
+    private boolean isJavaScript(IFile file) {
+        return file.getName().endsWith(".js");
     }
 
     private void fullBuild(final IProgressMonitor monitor) throws CoreException {
         try {
             startProgress(monitor);
-            getProject().accept(new JsHintResourceVisitor(monitor));
+            List<IFile> files = new ArrayList<IFile>();
+            getProject().accept(new JsHintResourceVisitor(files, monitor));
+            checkJavaScript(files, LintQueue.REST);
+            scopeSeen();
+        } catch (OperationCanceledException e) {
+            // Part of the project wasn't visited, so start again next time.
+            forgetLastBuiltState();
         } catch (CoreException e) {
             JsHintLog.error(e);
         } finally {
@@ -196,18 +230,28 @@ public class JsHintBuilder extends IncrementalProjectBuilder {
             throws CoreException {
         try {
             startProgress(monitor);
-            delta.accept(new JsHintDeltaVisitor(monitor));
+            List<IFile> files = new ArrayList<IFile>();
+            delta.accept(new JsHintDeltaVisitor(files, monitor));
+            checkJavaScript(files, LintQueue.RECENT);
+            if (lastIncludeRoots == null) {
+                scopeSeen();
+            }
+        } catch (OperationCanceledException e) {
+            // The rest of the delta is lost, so the next build has to be a full one.
+            forgetLastBuiltState();
         } finally {
             monitor.done();
         }
     }
 
-    private void startProgress(IProgressMonitor monitor) {
-        monitor.beginTask("JSHint", IProgressMonitor.UNKNOWN);
+    /** Remember the include roots and exclusions that the whole project has now been built with. */
+    private void scopeSeen() {
+        lastIncludeRoots = includeRoots;
+        lastExcludes = excludes;
     }
 
-    private void logProgress(IProgressMonitor monitor, IResource resource) {
-        monitor.subTask("Linting " + resource.getName());
+    private void startProgress(IProgressMonitor monitor) {
+        monitor.beginTask("JSHint", IProgressMonitor.UNKNOWN);
     }
 
 }
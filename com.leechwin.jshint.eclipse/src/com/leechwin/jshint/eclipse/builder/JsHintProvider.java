@@ -1,5 +1,13 @@
 package com.leechwin.jshint.eclipse.builder;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
@@ -9,55 +17,345 @@ import org.eclipse.core.runtime.preferences.InstanceScope;
 
 import com.leechwin.jshint.eclipse.Activator;
 import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.engine.ExecutionProfile;
 import com.leechwin.jshint.eclipse.engine.JsHint;
-import com.leechwin.jshint.eclipse.engine.JsHintBuilder;
+import com.leechwin.jshint.eclipse.engine.JsHintConfig;
+import com.leechwin.jshint.eclipse.engine.JsHintPool;
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+import com.leechwin.jshint.eclipse.engine.JsHintResultCache;
+import com.leechwin.jshint.eclipse.engine.JsHintResultStore;
+import com.leechwin.jshint.eclipse.engine.LintEngineCapabilities;
+import com.leechwin.jshint.eclipse.engine.LintEngineProvider;
+import com.leechwin.jshint.eclipse.engine.LintEngines;
+import com.leechwin.jshint.eclipse.engine.LintLimits;
 import com.leechwin.jshint.eclipse.engine.Option;
+import com.leechwin.jshint.eclipse.preferences.PreferencesInitializer;
 
 /**
- * Provide a fully configured instance of {@link JsHint} on demand.
+ * Provide a fully configured pool of {@link JsHint} engines on demand.
  */
 public class JsHintProvider {
 
-    private final JsHintBuilder builder = new JsHintBuilder();
+    /** How many lint results to keep in memory. */
+    private static final int RESULT_CACHE_SIZE = 4096;
+
+    /** How many lint results to keep on disk. */
+    private static final int RESULT_STORE_SIZE = 65536;
+
+    /** Where the results are kept, relative to the plugin state location. */
+    private static final String RESULT_STORE_DIR = "results";
+
+    /** The backend that creates the engines, or null until it is next needed. */
+    private volatile LintEngineProvider engine;
+
+    /** How the engines run jshint; set along with {@link #engine}. */
+    private volatile ExecutionProfile profile;
+
+    private final JsHintResultCache resultCache = new JsHintResultCache(RESULT_CACHE_SIZE);
+
+    /** The preferences that feed into {@link JsHintConfig}. */
+    private final Set<String> configPreferences = configPreferences();
+
+    private volatile JsHintPool jsHintPool;
+
+    private volatile JsHintConfig jsHintConfig;
+
+    private volatile LintLimits lintLimits;
+
+    private JsHintResultStoreCompactionJob compactionJob;
+
+    private final FileLinter fileLinter = new FileLinter(this);
 
-    private JsHint jsHint;
+    private final LintScope lintScope = new LintScope();
+
+    private final LintQueueJob lintQueueJob = new LintQueueJob(this, fileLinter);
 
     /**
-     * Set up a listener for preference changes. This will ensure that the instance of {@link JsHint} that we have is kept in sync with the users choices. We do this by ensuring that a new lint will
-     * be created and configured on the next request.
+     * Set up a listener for preference changes. This will ensure that the pool of {@link JsHint} engines and its configuration are kept in sync with the users choices. We do this by ensuring that
+     * a new pool or configuration will be created on the next request. Also opens the persistent store of lint results.
      */
     public void init() {
+        lintScope.init();
+        File storeDir = Activator.getDefault().getStateLocation().append(RESULT_STORE_DIR).toFile();
+        try {
+            JsHintResultStore store = new JsHintResultStore(storeDir, RESULT_STORE_SIZE);
+            resultCache.setStore(store);
+            compactionJob = new JsHintResultStoreCompactionJob(store);
+        } catch (IOException e) {
+            JsHintLog.error("Unable to open the lint result store in " + storeDir, e);
+        } catch (RuntimeException e) {
+            // Linting works without the store, so don't let it stop the plugin from starting.
+            JsHintLog.error("Unable to open the lint result store in " + storeDir, e);
+        }
         IEclipsePreferences x = InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID);
         x.addPreferenceChangeListener(new IPreferenceChangeListener() {
             public void preferenceChange(PreferenceChangeEvent ev) {
-                jsHint = null;
-                JsHintLog.info("pref %s changed; nulling jsHint", ev.getKey());
+                if (configPreferences.contains(ev.getKey())) {
+                    jsHintConfig = null;
+                    JsHintLog.info("pref %s changed; nulling jsHintConfig", ev.getKey());
+                } else if (PreferencesInitializer.LINT_TIMEOUT_ID.equals(ev.getKey())
+                        || PreferencesInitializer.LINT_MAX_INSTRUCTIONS_ID.equals(ev.getKey())) {
+                    lintLimits = null;
+                    JsHintLog.info("pref %s changed; nulling lintLimits", ev.getKey());
+                } else if (PreferencesInitializer.POOL_SIZE_ID.equals(ev.getKey())) {
+                    jsHintPool = null;
+                    JsHintLog.info("pref %s changed; nulling jsHintPool", ev.getKey());
+                } else if (PreferencesInitializer.EXECUTION_PROFILE_ID.equals(ev.getKey())
+                        || PreferencesInitializer.LINT_ENGINE_ID.equals(ev.getKey())) {
+                    resetEngine();
+                    JsHintLog.info("pref %s changed; nulling engine, jsHintPool and jsHintConfig", ev.getKey());
+                }
+            }
+        });
+        // Changes to folder and project encodings come as deltas to the builder, but the workspace default doesn't.
+        IEclipsePreferences resources = InstanceScope.INSTANCE.getNode(ResourcesPlugin.PI_RESOURCES);
+        resources.addPreferenceChangeListener(new IPreferenceChangeListener() {
+            public void preferenceChange(PreferenceChangeEvent ev) {
+                if (ResourcesPlugin.PREF_ENCODING.equals(ev.getKey())) {
+                    fileLinter.charsetsChanged();
+                    JsHintLog.info("pref %s changed; forgetting file charsets", ev.getKey());
+                }
             }
         });
     }
 
     /**
-     * Return a fully configured instance of lint. This should not be cached; each use should call this method.
+     * Return a fully configured pool of lint engines. This should not be cached; each use should call this method.
+     */
+    public JsHintPool getJsHintPool() {
+        JsHintPool pool = jsHintPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = jsHintPool;
+                if (pool == null) {
+                    LintEngineProvider provider = getEngine();
+                    pool = new JsHintPool(provider, profile, poolSize());
+                    jsHintPool = pool;
+                }
+            }
+        }
+        JsHintConfig config = getJsHintConfig();
+        if (pool.getConfig() != config) {
+            pool.setConfig(config);
+        }
+        LintLimits limits = getLintLimits();
+        if (pool.getLimits() != limits) {
+            pool.setLimits(limits);
+        }
+        return pool;
+    }
+
+    /**
+     * Return how long a single lint may run for, as set in the preferences.
+     */
+    public LintLimits getLintLimits() {
+        LintLimits limits = lintLimits;
+        if (limits == null) {
+            IPreferencesService prefs = Platform.getPreferencesService();
+            int seconds = prefs.getInt(Activator.PLUGIN_ID, PreferencesInitializer.LINT_TIMEOUT_ID,
+                    PreferencesInitializer.DEFAULT_LINT_TIMEOUT, null);
+            int millions = prefs.getInt(Activator.PLUGIN_ID, PreferencesInitializer.LINT_MAX_INSTRUCTIONS_ID,
+                    PreferencesInitializer.DEFAULT_LINT_MAX_INSTRUCTIONS, null);
+            limits = new LintLimits(seconds * 1000L, millions * 1000000L);
+            lintLimits = limits;
+        }
+        return limits;
+    }
+
+    /**
+     * Return a snapshot of the current configuration. This should not be cached; each use should call this method.
+     */
+    public JsHintConfig getJsHintConfig() {
+        JsHintConfig config = jsHintConfig;
+        if (config == null) {
+            synchronized (this) {
+                config = jsHintConfig;
+                if (config == null) {
+                    config = readConfig();
+                    jsHintConfig = config;
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Lint {@code javaScript}, unless an identical source has already been linted with the same configuration. Results
+     * are shared between builds and editors this way. A lint that times out is logged and not cached, so that it gets
+     * another chance next time.
+     * @param path the workspace path of the source, for messages.
+     * @param key the cache key, as made by {@link JsHintResultCache#key(String, String)}.
+     * @param javaScript the source code.
+     * @param config the configuration to lint with.
+     * @throws IOException if the persistent store of results can't be used.
+     */
+    public JsHintResult lint(String path, String key, String javaScript, JsHintConfig config) throws IOException {
+        return lint(path, key, javaScript, config, true);
+    }
+
+    /**
+     * Lint {@code javaScript} as {@link #lint(String, String, String, JsHintConfig)} does, but for source that hasn't
+     * been saved, such as the contents of an editor. Its result is only cached in memory, so the text never gets into
+     * the persistent store.
+     * @throws IOException if the persistent store of results can't be read.
+     */
+    public JsHintResult lintUnsaved(String path, String key, String javaScript, JsHintConfig config)
+            throws IOException {
+        return lint(path, key, javaScript, config, false);
+    }
+
+    private JsHintResult lint(String path, String key, String javaScript, JsHintConfig config, boolean persistent)
+            throws IOException {
+        JsHintResult result = resultCache.get(key);
+        if (result == null) {
+            result = getJsHintPool().lint(path, javaScript, config);
+            if (result.isTimedOut()) {
+                JsHintLog.info("Lint of %s timed out after %d ms", path, result.getElapsedMillis());
+            } else if (persistent) {
+                resultCache.put(key, result);
+            } else {
+                resultCache.putInMemory(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the cache of lint results, shared by every pool this provider hands out.
+     */
+    public JsHintResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Return the reader and linter of workspace files, shared by every project's builder.
      */
-    public JsHint getJsHint() {
-        if (jsHint == null) {
-            jsHint = builder.fromDefault();
-            configure();
+    public FileLinter getFileLinter() {
+        return fileLinter;
+    }
+
+    /**
+     * Return which files are linted, shared by every project's builder and the editors.
+     */
+    public LintScope getLintScope() {
+        return lintScope;
+    }
+
+    /**
+     * Return the background job that lints queued files and updates their markers.
+     */
+    public LintQueueJob getLintQueueJob() {
+        return lintQueueJob;
+    }
+
+    /**
+     * Compact the persistent store in the background, if it has accumulated enough replaced results to need it.
+     */
+    public void compactIfNeeded() {
+        JsHintResultStore store = resultCache.getStore();
+        if (store != null && store.needsCompaction()) {
+            compactionJob.schedule();
+        }
+    }
+
+    /** Stop linting queued files, and close the persistent store of lint results. */
+    public void dispose() {
+        lintQueueJob.cancel();
+        try {
+            // Cancellation is noticed within a fraction of a second; don't close the store under it.
+            lintQueueJob.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        JsHintResultStore store = resultCache.getStore();
+        if (store == null) {
+            return;
+        }
+        compactionJob.cancel();
+        resultCache.setStore(null);
+        try {
+            store.close();
+        } catch (IOException e) {
+            JsHintLog.error(e);
         }
-        return jsHint;
     }
 
-    /** Set up the current instance of lint using the current preferences. */
-    public void configure() {
-        JsHint lint = getJsHint();
-        lint.resetOptions();
+    /** Build a configuration snapshot from the current preferences. */
+    private JsHintConfig readConfig() {
         IPreferencesService prefs = Platform.getPreferencesService();
+        Map<Option, String> values = new EnumMap<Option, String>(Option.class);
         for (Option o : Option.values()) {
             String value = prefs.getString(Activator.PLUGIN_ID, o.getLowerName(), null, null);
             if (value != null) {
-                lint.addOption(o, value);
+                values.put(o, value);
             }
         }
+        String predefinedStrings = prefs.getString(Activator.PLUGIN_ID, PreferencesInitializer.PREDEF_ID, "", null);
+        return new JsHintConfig(values, JsHintConfig.parseGlobals(predefinedStrings),
+                getEngine().getCapabilities().getVersion());
+    }
+
+    /**
+     * Switch backends if one that has been added or removed changes which backend is selected. Lints in progress finish
+     * with the engines they have.
+     */
+    public void enginesChanged() {
+        LintEngineProvider current = engine;
+        if (current != null && selectEngine() != current) {
+            resetEngine();
+            JsHintLog.info("Lint backends changed; nulling engine, jsHintPool and jsHintConfig");
+        }
+    }
+
+    /** Make the next request choose the backend and profile again, and build a new pool and configuration with them. */
+    private synchronized void resetEngine() {
+        engine = null;
+        jsHintPool = null;
+        jsHintConfig = null;
+    }
+
+    /**
+     * Return the backend that creates the engines, setting {@link #profile} along with it. The system properties
+     * {@link LintEngines#SYSTEM_PROPERTY} and {@link ExecutionProfile#SYSTEM_PROPERTY} override the preferences.
+     */
+    private synchronized LintEngineProvider getEngine() {
+        if (engine == null) {
+            IPreferencesService prefs = Platform.getPreferencesService();
+            ExecutionProfile preferred = ExecutionProfile.fromPreference(prefs.getString(Activator.PLUGIN_ID,
+                    PreferencesInitializer.EXECUTION_PROFILE_ID, null, null), ExecutionProfile.DEFAULT);
+            profile = ExecutionProfile.fromSystemProperty(preferred);
+            LintEngineProvider provider = selectEngine();
+            LintEngineCapabilities capabilities = provider.getCapabilities();
+            JsHintLog.info("Running jshint %s on %s with the %s execution profile", capabilities.getVersion(),
+                    capabilities.getName(), profile.getPreference());
+            if (!capabilities.isInstructionLimited() && getLintLimits().getMaxInstructions() > 0) {
+                JsHintLog.info("%s can't limit the instructions a lint runs; only the timeout applies",
+                        capabilities.getName());
+            }
+            engine = provider;
+        }
+        return engine;
+    }
+
+    private LintEngineProvider selectEngine() {
+        IPreferencesService prefs = Platform.getPreferencesService();
+        return LintEngines.select(prefs.getString(Activator.PLUGIN_ID, PreferencesInitializer.LINT_ENGINE_ID, null,
+                null));
+    }
+
+    private static Set<String> configPreferences() {
+        Set<String> names = new HashSet<String>();
+        for (Option o : Option.values()) {
+            names.add(o.getLowerName());
+        }
+        names.add(PreferencesInitializer.PREDEF_ID);
+        return names;
+    }
+
+    /** How many engines may lint at the same time. Defaults to the number of processors. */
+    public int poolSize() {
+        IPreferencesService prefs = Platform.getPreferencesService();
+        return prefs.getInt(Activator.PLUGIN_ID, PreferencesInitializer.POOL_SIZE_ID, PreferencesInitializer.DEFAULT_POOL_SIZE, null);
     }
 
 }
@@ -0,0 +1,39 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.io.IOException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.engine.JsHintResultStore;
+
+/**
+ * Rewrite the persistent store of lint results in the background, dropping results that have been replaced.
+ */
+public class JsHintResultStoreCompactionJob extends Job {
+
+    private final JsHintResultStore store;
+
+    public JsHintResultStoreCompactionJob(JsHintResultStore store) {
+        super("JSHint result store compaction");
+        this.store = store;
+        setPriority(DECORATE);
+        setSystem(true);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        try {
+            long start = System.currentTimeMillis();
+            store.compact();
+            JsHintLog.info("Compacted JSHint result store to %d results in %d ms", store.size(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            JsHintLog.error("Unable to compact the lint result store", e);
+        }
+        return Status.OK_STATUS;
+    }
+
+}
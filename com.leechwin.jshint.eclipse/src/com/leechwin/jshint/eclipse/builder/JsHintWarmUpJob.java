@@ -0,0 +1,67 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.engine.JsHintPool;
+import com.leechwin.jshint.eclipse.engine.LintEvent;
+import com.leechwin.jshint.eclipse.engine.LintMetrics;
+
+/**
+ * Build a lint engine in the background and run it over a small corpus, so that the first real lint of a session
+ * doesn't pay for loading jshint.js or for warming up the JIT. The corpus lints are not recorded in the
+ * {@link LintMetrics} or as {@link LintEvent}s.
+ */
+public class JsHintWarmUpJob extends Job {
+
+    /** How many times to lint the corpus. */
+    private static final int ROUNDS = 5;
+
+    /** A few snippets covering the common paths through jshint. */
+    private static final String[] CORPUS = {
+        "var a = 1;\n",
+        "function add(x, y) {\n    'use strict';\n    return x + y;\n}\nadd(1, 2);\n",
+        "var list = [1, 2, 3], total = 0;\nfor (var i = 0; i < list.length; i++) {\n    total += list[i];\n}\n",
+        "var point = { x: 1, y: 2, move: function (dx) { this.x += dx; return this; } };\npoint.move(1);\n",
+        "if (a == null) b = undefinedVariable\nwhile (true) { break }\n",
+        "(function () {\n    var self = this;\n    setTimeout(function () { self.done(); }, 0);\n}());\n",
+    };
+
+    private final JsHintProvider lintProvider;
+
+    public JsHintWarmUpJob(JsHintProvider lintProvider) {
+        super("JSHint warm up");
+        this.lintProvider = lintProvider;
+        setPriority(DECORATE);
+        setSystem(true);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        long start = System.currentTimeMillis();
+        LintMetrics.setRecording(false);
+        try {
+            JsHintPool lint = lintProvider.getJsHintPool();
+            for (int round = 0; round < ROUNDS; round++) {
+                for (int i = 0; i < CORPUS.length; i++) {
+                    if (monitor.isCanceled()) {
+                        return Status.CANCEL_STATUS;
+                    }
+                    lint.lint("warmup" + i + ".js", CORPUS[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            JsHintLog.error("JSHint warm up failed", e);
+            return Status.OK_STATUS;
+        } finally {
+            // Jobs share their threads.
+            LintMetrics.setRecording(true);
+        }
+        JsHintLog.info("JSHint warmed up in %d ms", System.currentTimeMillis() - start);
+        return Status.OK_STATUS;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+
+/**
+ * The workspace files waiting to be linted, most urgent first, as ordered by {@link RankedQueue}. Large files come
+ * first among those found by a full build, so that big files don't hold up the end of it. Safe to use from several
+ * threads at once.
+ */
+public class LintQueue extends RankedQueue<IFile> {
+
+    @Override
+    protected long sizeOf(IFile file) {
+        return FileLinter.sizeOf(file);
+    }
+
+    /** Drop every file in {@code container} from the queue. */
+    public synchronized void removeAll(IContainer container) {
+        for (IFile file : files()) {
+            if (container.getFullPath().isPrefixOf(file.getFullPath())) {
+                remove(file);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.engine.LintEvent;
+import com.leechwin.jshint.eclipse.engine.LintMetrics;
+
+/**
+ * Lint the files in a {@link LintQueue} in the background, in batches, most urgent first. The markers of each batch
+ * are updated as soon as it is done, so results show up while the rest of the queue is still being worked through.
+ * Files enqueued while the job is running are picked up by the same run. If the job is canceled, files not yet linted
+ * go back in the queue for the next run.
+ */
+public class LintQueueJob extends Job {
+
+    /** How many batches of files each engine in the pool gets; more means fewer marker updates. */
+    private static final int FILES_PER_ENGINE = 4;
+
+    /** How often to check for cancellation while waiting for a file to be linted. */
+    private static final long CANCEL_POLL_MILLIS = 100;
+
+    private final JsHintProvider lintProvider;
+
+    private final FileLinter fileLinter;
+
+    private final LintQueue queue = new LintQueue();
+
+    /**
+     * How many times each project has been cleaned, so that lints that were under way at the time don't bring its
+     * markers back. Guarded by {@link #queue}.
+     */
+    private final Map<IProject, Integer> cleans = new HashMap<IProject, Integer>();
+
+    public LintQueueJob(JsHintProvider lintProvider, FileLinter fileLinter) {
+        super("JSHint");
+        this.lintProvider = lintProvider;
+        this.fileLinter = fileLinter;
+        setPriority(BUILD);
+    }
+
+    /** @return the queue that this job works through. */
+    public LintQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Add {@code files} to the queue, and make sure that the job is running.
+     * @param rank {@link LintQueue#RECENT} or {@link LintQueue#REST}.
+     */
+    public void enqueue(Collection<IFile> files, int rank) {
+        if (files.isEmpty()) {
+            return;
+        }
+        queue.enqueue(files, rank);
+        schedule();
+    }
+
+    /**
+     * Drop the queued files of {@code project}, which has been cleaned, along with the results of any of its files that
+     * are being linted right now.
+     */
+    public void cleaned(IProject project) {
+        synchronized (queue) {
+            Integer count = cleans.get(project);
+            cleans.put(project, count == null ? 1 : count + 1);
+            queue.removeAll(project);
+        }
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        monitor.beginTask("JSHint", IProgressMonitor.UNKNOWN);
+        MinifiedFileFilter filter = MinifiedFileFilter.fromPreferences(lintProvider.getJsHintConfig());
+        int poolSize = lintProvider.getJsHintPool().getSize();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        int linted = 0;
+        try {
+            while (true) {
+                Map<IProject, Integer> cleansBefore;
+                List<RankedQueue.Entry<IFile>> batch;
+                synchronized (queue) {
+                    cleansBefore = new HashMap<IProject, Integer>(cleans);
+                    batch = queue.take(poolSize * FILES_PER_ENGINE);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Map<RankedQueue.Entry<IFile>, LintedFile> results = lintAll(batch, filter, executor, monitor);
+                updateMarkers(results, cleansBefore);
+                linted += results.size();
+                if (results.size() < batch.size()) {
+                    List<RankedQueue.Entry<IFile>> left = new ArrayList<RankedQueue.Entry<IFile>>();
+                    for (RankedQueue.Entry<IFile> entry : batch) {
+                        if (!results.containsKey(entry) && stillWanted(entry.file, cleansBefore)) {
+                            left.add(entry);
+                        }
+                    }
+                    queue.requeue(left);
+                    JsHintLog.info("Lint canceled; %d files left in the queue", queue.size());
+                    return Status.CANCEL_STATUS;
+                }
+            }
+        } catch (CoreException e) {
+            JsHintLog.error(e);
+        } finally {
+            // Interrupts any lints still running, which stop within a few milliseconds.
+            executor.shutdownNow();
+            filter.report();
+            lintProvider.compactIfNeeded();
+            monitor.done();
+        }
+        JsHintLog.info("Linted %d files", linted);
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Lint all of {@code batch} in parallel, in order of urgency. If the job is canceled, files that hadn't been linted
+     * are left out of the result.
+     * @return the result for each file that was dealt with, which is null if it was skipped, and
+     *         {@link LintedFile#FAILED} if it couldn't be linted.
+     */
+    private Map<RankedQueue.Entry<IFile>, LintedFile> lintAll(List<RankedQueue.Entry<IFile>> batch,
+            final MinifiedFileFilter filter, ExecutorService executor, IProgressMonitor monitor) {
+        Map<RankedQueue.Entry<IFile>, LintedFile> results = new LinkedHashMap<RankedQueue.Entry<IFile>, LintedFile>();
+        Map<RankedQueue.Entry<IFile>, Future<LintedFile>> futures =
+                new HashMap<RankedQueue.Entry<IFile>, Future<LintedFile>>();
+        for (final RankedQueue.Entry<IFile> entry : batch) {
+            futures.put(entry, executor.submit(new Callable<LintedFile>() {
+                public LintedFile call() {
+                    return fileLinter.lint(entry.file, entry.size, filter);
+                }
+            }));
+        }
+        try {
+            for (RankedQueue.Entry<IFile> entry : batch) {
+                monitor.subTask("Linting " + entry.file.getName());
+                try {
+                    results.put(entry, await(futures.get(entry), monitor));
+                } catch (ExecutionException e) {
+                    JsHintLog.error(e.getCause());
+                    results.put(entry, LintedFile.FAILED);
+                }
+            }
+        } catch (CancellationException e) {
+            cancelAll(futures.values());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(futures.values());
+        }
+        return results;
+    }
+
+    /**
+     * Wait for {@code future}, checking for cancellation every {@link #CANCEL_POLL_MILLIS}.
+     * @throws CancellationException if the job is canceled first.
+     */
+    private LintedFile await(Future<LintedFile> future, IProgressMonitor monitor)
+            throws ExecutionException, InterruptedException {
+        while (true) {
+            if (monitor.isCanceled()) {
+                throw new CancellationException();
+            }
+            try {
+                return future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Check again.
+            }
+        }
+    }
+
+    private void cancelAll(Collection<Future<LintedFile>> futures) {
+        for (Future<LintedFile> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Should {@code file} still be linted, and its result shown? Not if it has left the {@link LintScope}, or its
+     * project has been cleaned since it was taken from the queue.
+     * @param cleansBefore the clean counts of each project when the file was taken from the queue.
+     */
+    private boolean stillWanted(IFile file, Map<IProject, Integer> cleansBefore) {
+        IProject project = file.getProject();
+        synchronized (queue) {
+            Integer count = cleans.get(project);
+            if (count != null && !count.equals(cleansBefore.get(project))) {
+                return false;
+            }
+        }
+        return lintProvider.getLintScope().contains(file);
+    }
+
+    /**
+     * Update the markers of every file in {@code results} that still exists and is still wanted, in a single workspace
+     * operation. Doesn't wait for a build to finish before the markers are shown. The markers of files that failed are
+     * left alone.
+     * @param cleansBefore the clean counts of each project when the files were taken from the queue.
+     */
+    private void updateMarkers(final Map<RankedQueue.Entry<IFile>, LintedFile> results,
+            final Map<IProject, Integer> cleansBefore) throws CoreException {
+        if (results.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+            public void run(IProgressMonitor monitor) throws CoreException {
+                MarkerUpdater markers = new MarkerUpdater(JsHintBuilder.MARKER_TYPE);
+                for (Map.Entry<RankedQueue.Entry<IFile>, LintedFile> result : results.entrySet()) {
+                    IFile file = result.getKey().file;
+                    LintedFile linted = result.getValue();
+                    if (linted != LintedFile.FAILED && file.exists() && stillWanted(file, cleansBefore)) {
+                        LintEvent event = LintEvent.begin(LintEvent.Phase.MARKERS);
+                        markers.update(file, linted);
+                        int issues = linted == null ? 0 : linted.getResult().getIssues().size();
+                        event.file(file.getFullPath().toString(), result.getKey().size, issues).commit();
+                    }
+                }
+                markers.flush();
+            }
+        }, null, IWorkspace.AVOID_UPDATE, null);
+        LintMetrics.getInstance().markersUpdated(System.nanoTime() - start);
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import com.leechwin.jshint.eclipse.Activator;
+import com.leechwin.jshint.eclipse.preferences.PreferencesInitializer;
+
+/**
+ * Decide which files are linted: those that aren't derived or team private, that are in one of the include roots, and
+ * that aren't excluded, either themselves or by one of their folders. Kept up to date as the preferences change, so
+ * it can be shared by the builders, the lint queue and the editors, from several threads at once.
+ */
+public class LintScope {
+
+    private final Excluder excluder = new Excluder();
+
+    /** The project relative folders to lint, or empty to lint everything. */
+    private volatile List<IPath> includeRoots = Collections.emptyList();
+
+    public void init() {
+        excluder.init();
+        readIncludeRoots();
+        monitor();
+    }
+
+    /** Return the project relative folders to lint, or an empty list to lint everything. */
+    public List<IPath> getIncludeRoots() {
+        return includeRoots;
+    }
+
+    /** Return the list of patterns to exclude from linting. */
+    public List<Pattern> getExcludes() {
+        return excluder.getExcludes();
+    }
+
+    /**
+     * Should the visitors skip {@code resource} and everything in it? This is the case for derived and team private
+     * resources, anything outside the include roots, and excluded folders.
+     */
+    public boolean prune(IResource resource) {
+        if (resource.getType() == IResource.PROJECT) {
+            return false;
+        }
+        if (resource.isDerived() || resource.isTeamPrivateMember() || !included(resource)) {
+            return true;
+        }
+        return resource.getType() == IResource.FOLDER && excluder.isExcludedFolder(resource);
+    }
+
+    /**
+     * Is {@code file} explicitly excluded? Check against a list of regexes in the <i>exclude_path_regexes</i> preference.
+     */
+    public boolean isExcluded(IFile file) {
+        return excluder.isExcluded(file);
+    }
+
+    /** Should {@code file} be linted? It mustn't be excluded, nor pruned along with any of its folders. */
+    public boolean contains(IFile file) {
+        for (IResource resource = file; resource.getType() != IResource.PROJECT; resource = resource.getParent()) {
+            if (prune(resource)) {
+                return false;
+            }
+        }
+        return !isExcluded(file);
+    }
+
+    /** Is {@code resource} in one of the include roots, or a folder on the way to one? */
+    private boolean included(IResource resource) {
+        List<IPath> roots = includeRoots;
+        if (roots.isEmpty()) {
+            return true;
+        }
+        IPath path = resource.getProjectRelativePath();
+        for (IPath root : roots) {
+            if (root.isPrefixOf(path) || (resource.getType() != IResource.FILE && path.isPrefixOf(root))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void monitor() {
+        IEclipsePreferences scope = InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID);
+        scope.addPreferenceChangeListener(new IPreferenceChangeListener() {
+            public void preferenceChange(PreferenceChangeEvent ev) {
+                if (ev.getKey().equals(PreferencesInitializer.INCLUDE_PATHS_ID)) {
+                    readIncludeRoots();
+                }
+            }
+        });
+    }
+
+    private void readIncludeRoots() {
+        IPreferencesService prefs = Platform.getPreferencesService();
+        String pref = prefs.getString(Activator.PLUGIN_ID, PreferencesInitializer.INCLUDE_PATHS_ID, "", null);
+        List<IPath> roots = new ArrayList<IPath>();
+        for (String root : pref.split(",")) {
+            if (root.trim().length() > 0) {
+                roots.add(new Path(root.trim()));
+            }
+        }
+        includeRoots = Collections.unmodifiableList(roots);
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+import com.leechwin.jshint.eclipse.engine.LineIndex;
+
+/**
+ * The result of linting a file, along with what's needed to turn its issues into markers.
+ */
+public class LintedFile {
+
+    /**
+     * Stands for a file that couldn't be read or linted. Unlike a file that was skipped, its markers are left as they
+     * are, as the failure may well be transient.
+     */
+    public static final LintedFile FAILED = new LintedFile(null, null);
+
+    private final JsHintResult result;
+
+    private final LineIndex lines;
+
+    public LintedFile(JsHintResult result, LineIndex lines) {
+        this.result = result;
+        this.lines = lines;
+    }
+
+    public JsHintResult getResult() {
+        return result;
+    }
+
+    /** The index of the lines of the file, used to give each marker a character range. */
+    public LineIndex getLines() {
+        return lines;
+    }
+
+}
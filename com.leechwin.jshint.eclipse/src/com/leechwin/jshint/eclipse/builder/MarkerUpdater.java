@@ -0,0 +1,107 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.engine.Issue;
+import com.leechwin.jshint.eclipse.engine.LineIndex;
+
+/**
+ * Bring the lint markers on a set of files in line with new lint results. Markers for issues that are still present are
+ * left alone, so linting a file again only changes the markers that actually differ.
+ */
+public class MarkerUpdater {
+
+    private final String markerType;
+
+    private final List<IMarker> obsolete = new ArrayList<IMarker>();
+
+    public MarkerUpdater(String markerType) {
+        this.markerType = markerType;
+    }
+
+    /**
+     * Create markers for new issues in {@code linted}, and note which existing markers no longer have an issue. Those
+     * are removed by {@link #flush()}.
+     * @param linted the lint result, or null to remove all markers from {@code file}.
+     */
+    public void update(IFile file, LintedFile linted) {
+        try {
+            Map<String, List<IMarker>> existing = new HashMap<String, List<IMarker>>();
+            for (IMarker m : file.findMarkers(markerType, false, IResource.DEPTH_ZERO)) {
+                String key = keyOf(m.getAttribute(IMarker.LINE_NUMBER, -1), m.getAttribute(IMarker.CHAR_START, -1),
+                        m.getAttribute(IMarker.CHAR_END, -1), m.getAttribute(IMarker.MESSAGE, ""));
+                List<IMarker> same = existing.get(key);
+                if (same == null) {
+                    same = new ArrayList<IMarker>();
+                    existing.put(key, same);
+                }
+                same.add(m);
+            }
+
+            if (linted != null) {
+                LineIndex lines = linted.getLines();
+                for (Issue issue : linted.getResult().getIssues()) {
+                    int start = lines.offsetOf(issue.getLine(), issue.getCharacter());
+                    int end = start < 0 ? -1 : lines.endOf(issue.getLine(), start, issue.getLength());
+                    List<IMarker> same = existing.get(keyOf(issue.getLine(), start, end, issue.getReason()));
+                    if (same != null && !same.isEmpty()) {
+                        // Keep the existing marker.
+                        same.remove(same.size() - 1);
+                    } else {
+                        createMarker(file, issue, start, end);
+                    }
+                }
+            }
+
+            for (List<IMarker> unmatched : existing.values()) {
+                obsolete.addAll(unmatched);
+            }
+        } catch (CoreException e) {
+            JsHintLog.error(e);
+        }
+    }
+
+    /**
+     * Delete every marker found to be obsolete by {@link #update(IFile, LintedFile)}, in a single operation.
+     */
+    public void flush() throws CoreException {
+        if (obsolete.isEmpty()) {
+            return;
+        }
+        ResourcesPlugin.getWorkspace().deleteMarkers(obsolete.toArray(new IMarker[obsolete.size()]));
+        obsolete.clear();
+    }
+
+    /**
+     * @param start the offset of the issue in the file, or -1 if it isn't known.
+     * @param end the offset just past the issue.
+     */
+    private void createMarker(IFile file, Issue issue, int start, int end) throws CoreException {
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put(IMarker.MESSAGE, issue.getReason());
+        attributes.put(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+        attributes.put(IMarker.LINE_NUMBER, issue.getLine());
+        attributes.put(IMarker.SOURCE_ID, "JSHint");
+        if (start >= 0) {
+            attributes.put(IMarker.CHAR_START, start);
+            attributes.put(IMarker.CHAR_END, end);
+        }
+        file.createMarker(markerType).setAttributes(attributes);
+    }
+
+    /** Markers and issues with the same key are considered the same problem, with the same range. */
+    private static String keyOf(int line, int start, int end, String message) {
+        return line + ":" + start + "-" + end + ":" + message;
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
+
+import com.leechwin.jshint.eclipse.Activator;
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.engine.JsHintConfig;
+import com.leechwin.jshint.eclipse.engine.LineIndex;
+import com.leechwin.jshint.eclipse.engine.Option;
+import com.leechwin.jshint.eclipse.preferences.PreferencesInitializer;
+
+/**
+ * Spot minified and oversized files, such as vendored bundles, which take a long time to lint and only produce
+ * markers nobody will act on. Depending on the preferences these are skipped, only checked for syntax errors, or
+ * linted with a small <i>maxerr</i>. A new filter is made for each build, and counts the files it has dealt with.
+ */
+public class MinifiedFileFilter {
+
+    /** What a file looks like. */
+    public enum Kind {
+        NORMAL, MINIFIED, OVERSIZED
+    }
+
+    /** What to do with files that aren't {@link Kind#NORMAL}. */
+    public enum Mode {
+        /** Don't lint them at all. */
+        SKIP("skip"),
+        /** Lint without any options, and keep only syntax errors. */
+        SYNTAX("syntax"),
+        /** Lint as usual, but stop after a few issues. */
+        REDUCED("reduced");
+
+        private final String preference;
+
+        private Mode(String preference) {
+            this.preference = preference;
+        }
+
+        /** The value of this mode in the preferences. */
+        public String getPreference() {
+            return preference;
+        }
+
+        static Mode fromPreference(String value) {
+            for (Mode mode : values()) {
+                if (mode.preference.equals(value)) {
+                    return mode;
+                }
+            }
+            return SYNTAX;
+        }
+    }
+
+    private final Mode mode;
+
+    private final long maxFileSize;
+
+    private final int maxAverageLine;
+
+    private final int maxLine;
+
+    private final JsHintConfig config;
+
+    private final JsHintConfig filteredConfig;
+
+    private final AtomicInteger filteredFiles = new AtomicInteger();
+
+    private final AtomicLong filteredBytes = new AtomicLong();
+
+    /**
+     * @param mode what to do with minified and oversized files.
+     * @param maxFileSize files bigger than this many bytes are oversized.
+     * @param maxAverageLine files whose lines are longer than this on average are minified.
+     * @param maxLine files with any line longer than this are minified.
+     * @param maxErr the <i>maxerr</i> to use in {@link Mode#REDUCED}.
+     * @param config the configuration to lint normal files with.
+     */
+    public MinifiedFileFilter(Mode mode, long maxFileSize, int maxAverageLine, int maxLine, int maxErr,
+            JsHintConfig config) {
+        this.mode = mode;
+        this.maxFileSize = maxFileSize;
+        this.maxAverageLine = maxAverageLine;
+        this.maxLine = maxLine;
+        this.config = config;
+        if (mode == Mode.SYNTAX) {
+            this.filteredConfig = new JsHintConfig(Collections.<Option, String> emptyMap(),
+                    Collections.<String> emptyList(), config.getVersion());
+        } else if (mode == Mode.REDUCED) {
+            this.filteredConfig = config.withOption(Option.MAXERR, Integer.toString(maxErr));
+        } else {
+            this.filteredConfig = null;
+        }
+    }
+
+    /**
+     * Create a filter using the thresholds in the preferences.
+     * @param config the configuration to lint normal files with.
+     */
+    public static MinifiedFileFilter fromPreferences(JsHintConfig config) {
+        IPreferencesService prefs = Platform.getPreferencesService();
+        String id = Activator.PLUGIN_ID;
+        return new MinifiedFileFilter(
+                Mode.fromPreference(prefs.getString(id, PreferencesInitializer.MINIFIED_MODE_ID,
+                        PreferencesInitializer.DEFAULT_MINIFIED_MODE, null)),
+                1024L * prefs.getInt(id, PreferencesInitializer.MAX_FILE_SIZE_ID,
+                        PreferencesInitializer.DEFAULT_MAX_FILE_SIZE, null),
+                prefs.getInt(id, PreferencesInitializer.MAX_AVERAGE_LINE_ID,
+                        PreferencesInitializer.DEFAULT_MAX_AVERAGE_LINE, null),
+                prefs.getInt(id, PreferencesInitializer.MAX_LINE_ID, PreferencesInitializer.DEFAULT_MAX_LINE, null),
+                prefs.getInt(id, PreferencesInitializer.MINIFIED_MAXERR_ID,
+                        PreferencesInitializer.DEFAULT_MINIFIED_MAXERR, null),
+                config);
+    }
+
+    /**
+     * Classify a file by its size alone, before it is read.
+     * @param size the size of the file in bytes.
+     */
+    public Kind classify(long size) {
+        return size > maxFileSize ? Kind.OVERSIZED : Kind.NORMAL;
+    }
+
+    /**
+     * Classify a file by its size and the length of its lines.
+     * @param size the size of the file in bytes.
+     * @param lines the lines of the file.
+     */
+    public Kind classify(long size, LineIndex lines) {
+        if (size > maxFileSize) {
+            return Kind.OVERSIZED;
+        } else if (lines.getAverageLine() > maxAverageLine || lines.getLongestLine() > maxLine) {
+            return Kind.MINIFIED;
+        }
+        return Kind.NORMAL;
+    }
+
+    /**
+     * @return what to do with files that aren't {@link Kind#NORMAL}.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the configuration to lint a file of {@code kind} with, or null if it shouldn't be linted.
+     */
+    public JsHintConfig configFor(Kind kind) {
+        return kind == Kind.NORMAL ? config : filteredConfig;
+    }
+
+    /**
+     * Count a file that isn't {@link Kind#NORMAL}.
+     * @param size the size of the file in bytes.
+     */
+    public void filtered(long size) {
+        filteredFiles.incrementAndGet();
+        filteredBytes.addAndGet(size);
+    }
+
+    /**
+     * @return the number of files counted by {@link #filtered(long)}.
+     */
+    public int getFilteredFiles() {
+        return filteredFiles.get();
+    }
+
+    /**
+     * @return the total size of the files counted by {@link #filtered(long)}.
+     */
+    public long getFilteredBytes() {
+        return filteredBytes.get();
+    }
+
+    /** Log how many files were filtered, if any. */
+    public void report() {
+        int files = getFilteredFiles();
+        if (files == 0) {
+            return;
+        }
+        String action;
+        switch (mode) {
+        case SKIP:
+            action = "skipped";
+            break;
+        case SYNTAX:
+            action = "checked for syntax errors only";
+            break;
+        default:
+            action = "linted with a reduced maxerr";
+            break;
+        }
+        JsHintLog.info("%d minified or oversized files (%d KB) were %s", files, getFilteredBytes() / 1024, action);
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An immutable set of path patterns, compiled into a single regex so that a path is checked against all of them in
+ * one pass. Patterns with numbered back references are checked on their own, as joining them to the others would
+ * renumber their groups. Each pattern is either a regex, which may match anywhere in the path, or a glob prefixed with "glob:",
+ * which must match the whole path. In a glob, "**" matches any number of folders, "*" and "?" match within a single
+ * name, and everything else is literal. Nothing here depends on Eclipse.
+ */
+public final class PathMatcher {
+
+    /** Matches nothing. */
+    public static final PathMatcher NONE = new PathMatcher(Collections.<Pattern> emptyList(), null,
+            Collections.<Pattern> emptyList(), Collections.<String, PatternSyntaxException> emptyMap());
+
+    private static final String GLOB = "glob:";
+
+    private final List<Pattern> patterns;
+
+    /** All of the patterns that can be joined, or null if there are none. */
+    private final Pattern combined;
+
+    /** The patterns that are checked one by one. */
+    private final List<Pattern> separate;
+
+    private final Map<String, PatternSyntaxException> invalid;
+
+    private PathMatcher(List<Pattern> patterns, Pattern combined, List<Pattern> separate,
+            Map<String, PatternSyntaxException> invalid) {
+        this.patterns = Collections.unmodifiableList(patterns);
+        this.combined = combined;
+        this.separate = separate;
+        this.invalid = Collections.unmodifiableMap(invalid);
+    }
+
+    /**
+     * Compile a comma separated list of patterns. Patterns that aren't valid are left out, and listed by
+     * {@link #getInvalid()}.
+     */
+    public static PathMatcher compile(String list) {
+        if (list == null || list.trim().isEmpty()) {
+            return NONE;
+        }
+        List<Pattern> patterns = new ArrayList<Pattern>();
+        Map<String, PatternSyntaxException> invalid = new LinkedHashMap<String, PatternSyntaxException>();
+        List<Pattern> separate = new ArrayList<Pattern>();
+        StringBuilder alternation = new StringBuilder();
+        for (String entry : list.split(",")) {
+            String regex = entry.startsWith(GLOB) ? globToRegex(entry.substring(GLOB.length())) : entry;
+            if (regex.isEmpty()) {
+                continue;
+            }
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                invalid.put(entry, e);
+                continue;
+            }
+            patterns.add(pattern);
+            if (hasBackReference(regex)) {
+                separate.add(pattern);
+                continue;
+            }
+            if (alternation.length() > 0) {
+                alternation.append('|');
+            }
+            alternation.append("(?:").append(regex).append(')');
+        }
+        if (patterns.isEmpty()) {
+            return invalid.isEmpty() ? NONE : new PathMatcher(patterns, null, separate, invalid);
+        }
+        Pattern combined = null;
+        if (alternation.length() > 0) {
+            try {
+                combined = Pattern.compile(alternation.toString());
+            } catch (PatternSyntaxException e) {
+                // Two patterns use the same group name, so check each of them on its own.
+                return new PathMatcher(patterns, null, patterns, invalid);
+            }
+        }
+        return new PathMatcher(patterns, combined, separate, invalid);
+    }
+
+    /**
+     * Does {@code regex} refer back to a group by number, outside of a character class or quote? Named back
+     * references keep working once the pattern is joined to others, but numbered ones would refer to the wrong group.
+     */
+    static boolean hasBackReference(String regex) {
+        boolean inClass = false;
+        for (int i = 0; i < regex.length() - 1; i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                char next = regex.charAt(++i);
+                if (next == 'Q') {
+                    int end = regex.indexOf("\\E", i);
+                    if (end < 0) {
+                        return false;
+                    }
+                    i = end + 1;
+                } else if (!inClass && next >= '1' && next <= '9') {
+                    return true;
+                }
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            }
+        }
+        return false;
+    }
+
+    /** Translate a glob into an anchored regex. */
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder("^");
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    i++;
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if ("\\.[]{}()+-^$|".indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return regex.append('$').toString();
+    }
+
+    /** Does any pattern match {@code path}? */
+    public boolean matches(String path) {
+        if (combined != null && combined.matcher(path).find()) {
+            return true;
+        }
+        for (Pattern p : separate) {
+            if (p.matcher(path).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return each of the patterns, as compiled separately.
+     */
+    public List<Pattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @return the patterns that were left out because they aren't valid, each with the reason.
+     */
+    public Map<String, PatternSyntaxException> getInvalid() {
+        return invalid;
+    }
+
+}
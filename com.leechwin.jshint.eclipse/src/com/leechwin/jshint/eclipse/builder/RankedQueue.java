@@ -0,0 +1,175 @@
+package com.leechwin.jshint.eclipse.builder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The ordering behind {@link LintQueue}, for any kind of file, so that it doesn't depend on Eclipse. A file is only
+ * ever in the queue once; enqueuing it again just moves it up if the new rank is more urgent. Files in visible editors
+ * come first, then files open in other editors, then files that were changed recently, and finally everything else,
+ * largest first. Within a rank, the files enqueued last come first. Safe to use from several threads at once.
+ * @param <F> the type of the files, which must have a proper {@link Object#equals(Object)} and
+ *            {@link Object#hashCode()}.
+ */
+public abstract class RankedQueue<F> {
+
+    /** The rank of a file shown in a visible editor. */
+    public static final int VISIBLE = 0;
+
+    /** The rank of a file open in an editor that isn't visible. */
+    public static final int OPEN = 1;
+
+    /** The rank of a file found by an incremental build. */
+    public static final int RECENT = 2;
+
+    /** The rank of a file found by a full build. */
+    public static final int REST = 3;
+
+    /** A file in the queue. */
+    static class Entry<F> {
+        final F file;
+        final long size;
+        /** The rank the file was enqueued with, before taking editors into account. */
+        final int baseRank;
+        /** When the file was enqueued; later files sort first within a rank. */
+        final long seq;
+        int rank;
+
+        Entry(F file, long size, int baseRank, long seq) {
+            this.file = file;
+            this.size = size;
+            this.baseRank = baseRank;
+            this.seq = seq;
+        }
+    }
+
+    private final Comparator<Entry<F>> urgency = new Comparator<Entry<F>>() {
+        public int compare(Entry<F> a, Entry<F> b) {
+            if (a.rank != b.rank) {
+                return a.rank < b.rank ? -1 : 1;
+            }
+            if (a.rank == REST && a.size != b.size) {
+                return a.size > b.size ? -1 : 1;
+            }
+            return a.seq == b.seq ? 0 : a.seq > b.seq ? -1 : 1;
+        }
+    };
+
+    private final TreeSet<Entry<F>> ordered = new TreeSet<Entry<F>>(urgency);
+
+    private final Map<F, Entry<F>> entries = new HashMap<F, Entry<F>>();
+
+    private Set<F> open = Collections.emptySet();
+
+    private Set<F> visible = Collections.emptySet();
+
+    private long seq;
+
+    /**
+     * @return the size of {@code file}, which orders the files of rank {@link #REST}.
+     */
+    protected abstract long sizeOf(F file);
+
+    /**
+     * Add {@code files} to the queue, or move them up if they are already in it with a less urgent rank.
+     * @param rank {@link #RECENT} or {@link #REST}.
+     */
+    public synchronized void enqueue(Collection<? extends F> files, int rank) {
+        for (F file : files) {
+            Entry<F> old = entries.get(file);
+            int baseRank = rank;
+            if (old != null) {
+                ordered.remove(old);
+                baseRank = Math.min(old.baseRank, rank);
+            }
+            add(new Entry<F>(file, sizeOf(file), baseRank, seq++));
+        }
+    }
+
+    /** Put back entries taken by {@link #take(int)} that weren't dealt with, unless they have been enqueued since. */
+    synchronized void requeue(Collection<Entry<F>> taken) {
+        for (Entry<F> entry : taken) {
+            if (!entries.containsKey(entry.file)) {
+                add(entry);
+            }
+        }
+    }
+
+    /**
+     * Remove up to {@code max} of the most urgent files from the queue.
+     * @return the files removed, most urgent first; empty if the queue is.
+     */
+    synchronized List<Entry<F>> take(int max) {
+        List<Entry<F>> taken = new ArrayList<Entry<F>>();
+        while (taken.size() < max && !ordered.isEmpty()) {
+            Entry<F> entry = ordered.pollFirst();
+            entries.remove(entry.file);
+            taken.add(entry);
+        }
+        return taken;
+    }
+
+    /** Drop {@code file} from the queue, if it is in it. */
+    public synchronized void remove(F file) {
+        Entry<F> entry = entries.remove(file);
+        if (entry != null) {
+            ordered.remove(entry);
+        }
+    }
+
+    /**
+     * @return a copy of the files in the queue, in no particular order.
+     */
+    protected synchronized List<F> files() {
+        return new ArrayList<F>(entries.keySet());
+    }
+
+    /**
+     * Note which files are open in editors, and which of those editors are visible. Files in the queue that are
+     * affected are moved to their new rank.
+     */
+    public synchronized void editorsChanged(Set<? extends F> openFiles, Set<? extends F> visibleFiles) {
+        Set<F> affected = new HashSet<F>(open);
+        affected.addAll(openFiles);
+        open = new HashSet<F>(openFiles);
+        visible = new HashSet<F>(visibleFiles);
+        for (F file : affected) {
+            Entry<F> entry = entries.get(file);
+            if (entry != null) {
+                ordered.remove(entry);
+                entry.rank = rankOf(entry);
+                ordered.add(entry);
+            }
+        }
+    }
+
+    /** @return how many files are waiting. */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void add(Entry<F> entry) {
+        entry.rank = rankOf(entry);
+        entries.put(entry.file, entry);
+        ordered.add(entry);
+    }
+
+    private int rankOf(Entry<F> entry) {
+        if (visible.contains(entry.file)) {
+            return VISIBLE;
+        }
+        if (open.contains(entry.file)) {
+            return Math.min(OPEN, entry.baseRank);
+        }
+        return entry.baseRank;
+    }
+
+}
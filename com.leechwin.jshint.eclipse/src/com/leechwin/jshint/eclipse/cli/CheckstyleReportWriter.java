@@ -0,0 +1,44 @@
+package com.leechwin.jshint.eclipse.cli;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.leechwin.jshint.eclipse.engine.Issue;
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+
+/**
+ * Write results in the XML format of checkstyle, which most CI servers can show. Every file linted gets a
+ * <code>&lt;file&gt;</code> element, even if it has no issues.
+ */
+public class CheckstyleReportWriter implements ReportWriter {
+
+    private final Writer out;
+
+    public CheckstyleReportWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void begin() throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<checkstyle version=\"4.3\">\n");
+    }
+
+    public void file(String path, JsHintResult result) throws IOException {
+        out.write("  <file name=\"" + Escaping.xml(path) + "\">\n");
+        for (Issue issue : result.getIssues()) {
+            String rule = issue.getCode() == null ? issue.getId() : issue.getCode();
+            out.write("    <error line=\"" + issue.getLine() + "\" column=\"" + issue.getCharacter()
+                    + "\" severity=\"" + (issue.isError() ? "error" : "warning")
+                    + "\" message=\"" + Escaping.xml(issue.getReason())
+                    + "\" source=\"jshint." + Escaping.xml(rule) + "\"/>\n");
+        }
+        out.write("  </file>\n");
+        out.flush();
+    }
+
+    public void end() throws IOException {
+        out.write("</checkstyle>\n");
+        out.flush();
+    }
+
+}
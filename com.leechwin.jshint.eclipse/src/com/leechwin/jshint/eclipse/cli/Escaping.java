@@ -0,0 +1,85 @@
+package com.leechwin.jshint.eclipse.cli;
+
+/**
+ * Quoting of text for the report formats.
+ */
+final class Escaping {
+
+    private Escaping() {
+    }
+
+    /** Escape {@code s} for use in an XML attribute value. */
+    static String xml(String s) {
+        if (s == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 16);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '&':
+                sb.append("&amp;");
+                break;
+            case '<':
+                sb.append("&lt;");
+                break;
+            case '>':
+                sb.append("&gt;");
+                break;
+            case '"':
+                sb.append("&quot;");
+                break;
+            case '\n':
+                sb.append("&#10;");
+                break;
+            case '\r':
+                sb.append("&#13;");
+                break;
+            case '\t':
+                sb.append("&#9;");
+                break;
+            default:
+                // Control characters aren't allowed in XML 1.0 at all.
+                sb.append(c < 0x20 ? '?' : c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Quote {@code s} as a JSON string, or return the JSON {@code null} if it is null. */
+    static String json(String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 16);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
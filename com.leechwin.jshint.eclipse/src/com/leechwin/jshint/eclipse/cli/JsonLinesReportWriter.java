@@ -0,0 +1,42 @@
+package com.leechwin.jshint.eclipse.cli;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.leechwin.jshint.eclipse.engine.Issue;
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+
+/**
+ * Write one JSON object per issue, one per line, so that the output can be processed while it is still being written.
+ * Files without issues write nothing.
+ */
+public class JsonLinesReportWriter implements ReportWriter {
+
+    private final Writer out;
+
+    public JsonLinesReportWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void begin() {
+    }
+
+    public void file(String path, JsHintResult result) throws IOException {
+        if (result.getIssues().isEmpty()) {
+            return;
+        }
+        String file = Escaping.json(path);
+        for (Issue issue : result.getIssues()) {
+            out.write("{\"file\":" + file + ",\"line\":" + issue.getLine() + ",\"character\":"
+                    + issue.getCharacter() + ",\"code\":" + Escaping.json(issue.getCode()) + ",\"severity\":"
+                    + (issue.isError() ? "\"error\"" : "\"warning\"") + ",\"message\":"
+                    + Escaping.json(issue.getReason()) + "}\n");
+        }
+        out.flush();
+    }
+
+    public void end() throws IOException {
+        out.flush();
+    }
+
+}
@@ -0,0 +1,363 @@
+package com.leechwin.jshint.eclipse.cli;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.leechwin.jshint.eclipse.engine.DefaultOptions;
+import com.leechwin.jshint.eclipse.engine.ExecutionProfile;
+import com.leechwin.jshint.eclipse.engine.JsHintConfig;
+import com.leechwin.jshint.eclipse.engine.JsHintPool;
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+import com.leechwin.jshint.eclipse.engine.LintEngineProvider;
+import com.leechwin.jshint.eclipse.engine.LintEngines;
+import com.leechwin.jshint.eclipse.engine.LintLimits;
+import com.leechwin.jshint.eclipse.engine.LintSource;
+import com.leechwin.jshint.eclipse.engine.Option;
+
+/**
+ * Lint JavaScript files from the command line, without Eclipse. Directories are searched for <code>*.js</code> files,
+ * which are linted in parallel by a pool of engines, using the same options and jshint.js as the plugin. The report is
+ * written to standard output (or a file) as each lint finishes, and a summary of throughput goes to standard error.
+ * <p>
+ * Exits with 0 if no issues were found, 1 if there were issues, and 2 if the arguments were wrong or a file couldn't be
+ * read.
+ */
+public final class Main {
+
+    private static final String USAGE = "Usage: java " + Main.class.getName() + " [options] <file or directory>...\n"
+            + "  --format checkstyle|sarif|jsonl   report format (default checkstyle)\n"
+            + "  --output <file>                   write the report to a file instead of standard output\n"
+            + "  --threads <n>                     number of engines linting at once (default: processors)\n"
+            + "  --option <name>=<value>           set a jshint option; may be repeated\n"
+            + "  --no-defaults                     start from no options, rather than the plugin's defaults\n"
+            + "  --predef <a,b,...>                global variables that the code may read\n"
+            + "  --exclude <regex>                 skip files whose path matches\n"
+            + "  --charset <name>                  encoding of the files (default UTF-8)\n"
+            + "  --timeout <seconds>               give up on a file after this long; 0 for never (default 30)\n"
+            + "  --profile <name>                  fast-start, balanced or max-throughput (default balanced)\n"
+            + "  --engine <id>                     the JavaScript runtime to lint with (default rhino)\n";
+
+    private static final int EXIT_CLEAN = 0;
+    private static final int EXIT_ISSUES = 1;
+    private static final int EXIT_ERROR = 2;
+
+    private static final double MEGABYTE = 1024 * 1024;
+
+    /** The arguments, once parsed. */
+    private static class Arguments {
+        String format = "checkstyle";
+        String output;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean defaults = true;
+        Map<Option, String> options = DefaultOptions.values();
+        Map<Option, String> overrides = new EnumMap<Option, String>(Option.class);
+        String predef = "";
+        Pattern exclude;
+        Charset charset = Charset.forName("UTF-8");
+        int timeout = 30;
+        ExecutionProfile profile = ExecutionProfile.fromSystemProperty(ExecutionProfile.DEFAULT);
+        LintEngineProvider engine = LintEngines.select(null);
+        List<String> paths = new ArrayList<String>();
+    }
+
+    /** A file to lint. */
+    private static class Source {
+        final Path path;
+        final long size;
+
+        Source(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    /** The outcome of linting a {@link Source}. */
+    private static class Linted {
+        final Source source;
+        final JsHintResult result;
+        final IOException error;
+
+        Linted(Source source, JsHintResult result, IOException error) {
+            this.source = source;
+            this.result = result;
+            this.error = error;
+        }
+    }
+
+    private Main() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Run the linter, as {@link #main(String[])} does, but without exiting.
+     * @return the exit code.
+     */
+    public static int run(String[] args, PrintStream stdout, PrintStream stderr) {
+        Arguments arguments;
+        try {
+            arguments = parse(args);
+        } catch (IllegalArgumentException e) {
+            stderr.println(e.getMessage());
+            stderr.print(USAGE);
+            return EXIT_ERROR;
+        }
+
+        List<Source> sources;
+        try {
+            sources = find(arguments.paths, arguments.exclude);
+        } catch (IOException e) {
+            stderr.println("Unable to list files: " + e);
+            return EXIT_ERROR;
+        }
+
+        OutputStream out = stdout;
+        try {
+            if (arguments.output != null) {
+                out = new FileOutputStream(arguments.output);
+            }
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+                return lint(arguments, sources, newReportWriter(arguments, writer), stderr);
+            } finally {
+                if (out != stdout) {
+                    out.close();
+                }
+            }
+        } catch (IOException e) {
+            stderr.println("Unable to write the report: " + e);
+            return EXIT_ERROR;
+        }
+    }
+
+    /**
+     * Lint every one of {@code sources} across a pool of engines, passing each result to {@code report} as soon as it
+     * is ready, then print a summary.
+     */
+    private static int lint(Arguments arguments, List<Source> sources, ReportWriter report, PrintStream stderr)
+            throws IOException {
+        JsHintConfig config = new JsHintConfig(arguments.options, JsHintConfig.parseGlobals(arguments.predef),
+                arguments.engine.getCapabilities().getVersion());
+        final JsHintPool pool = new JsHintPool(arguments.engine, arguments.profile, arguments.threads);
+        pool.setConfig(config);
+        pool.setLimits(new LintLimits(arguments.timeout * 1000L, 0));
+        final Charset charset = arguments.charset;
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(pool.getSize());
+        int issues = 0;
+        int failures = 0;
+        long bytes = 0;
+        report.begin();
+        try {
+            CompletionService<Linted> completed = new ExecutorCompletionService<Linted>(executor);
+            for (final Source source : sources) {
+                completed.submit(new Callable<Linted>() {
+                    public Linted call() {
+                        try {
+                            LintSource text = LintSource.read(source.path.toFile(), charset);
+                            return new Linted(source, pool.lint(source.path.toString(), text.getText()), null);
+                        } catch (IOException e) {
+                            return new Linted(source, null, e);
+                        }
+                    }
+                });
+            }
+            for (int i = 0; i < sources.size(); i++) {
+                Linted linted = completed.take().get();
+                if (linted.error != null) {
+                    stderr.println("Unable to read " + linted.source.path + ": " + linted.error);
+                    failures++;
+                    continue;
+                }
+                bytes += linted.source.size;
+                issues += linted.result.getIssues().size();
+                report.file(linted.source.path.toString(), linted.result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stderr.println("Interrupted");
+            return EXIT_ERROR;
+        } catch (ExecutionException e) {
+            // Linting never throws anything checked, so this is a bug.
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        report.end();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int files = sources.size() - failures;
+        stderr.println(String.format(Locale.ROOT,
+                "Linted %d files (%.2f MB) with %d engines in %.2f s: %.1f files/s, %.2f MB/s, %d issues", files,
+                bytes / MEGABYTE, pool.getSize(), seconds, files / seconds, bytes / MEGABYTE / seconds, issues));
+        if (failures > 0) {
+            return EXIT_ERROR;
+        }
+        return issues > 0 ? EXIT_ISSUES : EXIT_CLEAN;
+    }
+
+    private static ReportWriter newReportWriter(Arguments arguments, Writer writer) {
+        if ("sarif".equals(arguments.format)) {
+            return new SarifReportWriter(writer, arguments.engine.getCapabilities().getVersion());
+        } else if ("jsonl".equals(arguments.format)) {
+            return new JsonLinesReportWriter(writer);
+        }
+        return new CheckstyleReportWriter(writer);
+    }
+
+    /**
+     * Collect the JavaScript files named by {@code paths}, searching directories. Files named directly are always
+     * included; files found in directories are skipped if they match {@code exclude}. Largest files come first, so
+     * that they don't hold up the end of the run.
+     */
+    private static List<Source> find(List<String> paths, final Pattern exclude) throws IOException {
+        final List<Source> sources = new ArrayList<Source>();
+        for (String name : paths) {
+            Path path = Paths.get(name);
+            if (!Files.isDirectory(path)) {
+                sources.add(new Source(path, Files.size(path)));
+                continue;
+            }
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String unixPath = file.toString().replace(File.separatorChar, '/');
+                    if (attrs.isRegularFile() && unixPath.endsWith(".js")
+                            && (exclude == null || !exclude.matcher(unixPath).find())) {
+                        sources.add(new Source(file, attrs.size()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        Collections.sort(sources, new Comparator<Source>() {
+            public int compare(Source a, Source b) {
+                return a.size == b.size ? 0 : a.size > b.size ? -1 : 1;
+            }
+        });
+        return sources;
+    }
+
+    private static Arguments parse(String[] args) {
+        Arguments arguments = new Arguments();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                arguments.paths.add(arg);
+            } else if (arg.equals("--no-defaults")) {
+                arguments.defaults = false;
+            } else if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            } else {
+                String value = args[++i];
+                if (arg.equals("--format")) {
+                    if (!value.equals("checkstyle") && !value.equals("sarif") && !value.equals("jsonl")) {
+                        throw new IllegalArgumentException("Unknown format: " + value);
+                    }
+                    arguments.format = value;
+                } else if (arg.equals("--output")) {
+                    arguments.output = value;
+                } else if (arg.equals("--threads")) {
+                    arguments.threads = parseInt(arg, value);
+                } else if (arg.equals("--option")) {
+                    parseOption(value, arguments.overrides);
+                } else if (arg.equals("--predef")) {
+                    arguments.predef = value;
+                } else if (arg.equals("--exclude")) {
+                    try {
+                        arguments.exclude = Pattern.compile(value);
+                    } catch (PatternSyntaxException e) {
+                        throw new IllegalArgumentException("Invalid --exclude: " + e.getMessage());
+                    }
+                } else if (arg.equals("--charset")) {
+                    try {
+                        arguments.charset = Charset.forName(value);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown charset: " + value);
+                    }
+                } else if (arg.equals("--timeout")) {
+                    arguments.timeout = parseInt(arg, value);
+                } else if (arg.equals("--profile")) {
+                    arguments.profile = ExecutionProfile.fromPreference(value, null);
+                    if (arguments.profile == null) {
+                        throw new IllegalArgumentException("Unknown profile: " + value);
+                    }
+                } else if (arg.equals("--engine")) {
+                    arguments.engine = LintEngines.find(value);
+                    if (arguments.engine == null) {
+                        throw new IllegalArgumentException("Unknown engine: " + value);
+                    }
+                } else {
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+        }
+        if (arguments.paths.isEmpty()) {
+            throw new IllegalArgumentException("No files or directories given");
+        }
+        if (!arguments.defaults) {
+            arguments.options.clear();
+        }
+        arguments.options.putAll(arguments.overrides);
+        return arguments;
+    }
+
+    private static void parseOption(String value, Map<Option, String> options) {
+        int eq = value.indexOf('=');
+        if (eq < 0) {
+            throw new IllegalArgumentException("Expected --option <name>=<value>, not " + value);
+        }
+        String name = value.substring(0, eq).trim();
+        Option option;
+        try {
+            option = Option.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown option: " + name);
+        }
+        String optionValue = value.substring(eq + 1).trim();
+        if (option.getType() == Integer.class) {
+            parseInt("--option " + name, optionValue);
+        }
+        options.put(option, optionValue);
+    }
+
+    private static int parseInt(String arg, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number for " + arg + ", not " + value);
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.leechwin.jshint.eclipse.cli;
+
+import java.io.IOException;
+
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+
+/**
+ * Write lint results out as they arrive, rather than collecting them all first. Calls are made from a single thread:
+ * {@link #begin()}, then {@link #file(String, JsHintResult)} once per file in the order the lints finish, then
+ * {@link #end()}.
+ */
+public interface ReportWriter {
+
+    /** Write anything that comes before the first file. */
+    void begin() throws IOException;
+
+    /**
+     * Write the issues found in one file.
+     * @param path the path of the file, as it should appear in the report.
+     * @param result the issues found.
+     */
+    void file(String path, JsHintResult result) throws IOException;
+
+    /** Write anything that comes after the last file, and flush. Doesn't close the underlying stream. */
+    void end() throws IOException;
+
+}
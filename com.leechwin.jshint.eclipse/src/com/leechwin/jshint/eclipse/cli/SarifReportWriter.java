@@ -0,0 +1,64 @@
+package com.leechwin.jshint.eclipse.cli;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.leechwin.jshint.eclipse.engine.Issue;
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+
+/**
+ * Write results as a SARIF 2.1.0 log with a single run. The results array is written as the lints finish, and the log
+ * is only closed off by {@link #end()}.
+ */
+public class SarifReportWriter implements ReportWriter {
+
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+
+    private final Writer out;
+
+    private final String version;
+
+    private boolean first = true;
+
+    /**
+     * @param out where to write the log.
+     * @param version the version of jshint doing the linting.
+     */
+    public SarifReportWriter(Writer out, String version) {
+        this.out = out;
+        this.version = version;
+    }
+
+    public void begin() throws IOException {
+        out.write("{\"$schema\":" + Escaping.json(SCHEMA) + ",\"version\":\"2.1.0\",\"runs\":[{\"tool\":{\"driver\":"
+                + "{\"name\":\"JSHint\",\"version\":" + Escaping.json(version)
+                + ",\"informationUri\":\"https://jshint.com/\"}},\"results\":[\n");
+    }
+
+    public void file(String path, JsHintResult result) throws IOException {
+        if (result.getIssues().isEmpty()) {
+            return;
+        }
+        String uri = Escaping.json(path.replace('\\', '/'));
+        for (Issue issue : result.getIssues()) {
+            if (!first) {
+                out.write(",\n");
+            }
+            first = false;
+            String rule = issue.getCode() == null ? issue.getId() : issue.getCode();
+            out.write("{\"ruleId\":" + Escaping.json(rule) + ",\"level\":"
+                    + (issue.isError() ? "\"error\"" : "\"warning\"") + ",\"message\":{\"text\":"
+                    + Escaping.json(issue.getReason()) + "},\"locations\":[{\"physicalLocation\":"
+                    + "{\"artifactLocation\":{\"uri\":" + uri + "},\"region\":{\"startLine\":"
+                    + Math.max(1, issue.getLine()) + ",\"startColumn\":" + Math.max(1, issue.getCharacter())
+                    + "}}}]}");
+        }
+        out.flush();
+    }
+
+    public void end() throws IOException {
+        out.write("\n]}]}\n");
+        out.flush();
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The options that are set when the user hasn't changed anything. Shared by the Eclipse preferences and the command
+ * line, so that both lint the same way out of the box.
+ * @author leechwin1@gmail.com
+ */
+public final class DefaultOptions {
+
+    public static final int ESVERSION = 6;
+    public static final int MAXERR = 100;
+    public static final int MAXPARAMS = 5;
+
+    /** The boolean options that are turned on. */
+    public static final Set<Option> ENABLED = Collections.unmodifiableSet(EnumSet.of(Option.BITWISE, Option.CURLY,
+            Option.EQEQEQ, Option.UNDEF, Option.UNUSED, Option.DEBUG, Option.MOZ, Option.BROWSER, Option.DEVEL,
+            Option.MOCHA, Option.NODE, Option.QUNIT));
+
+    private DefaultOptions() {
+    }
+
+    /**
+     * @return the unparsed value of each option that is set by default, suitable for a {@link JsHintConfig}.
+     */
+    public static Map<Option, String> values() {
+        Map<Option, String> values = new EnumMap<Option, String>(Option.class);
+        for (Option o : ENABLED) {
+            values.put(o, "true");
+        }
+        values.put(Option.ESVERSION, Integer.toString(ESVERSION));
+        values.put(Option.MAXERR, Integer.toString(MAXERR));
+        values.put(Option.MAXPARAMS, Integer.toString(MAXPARAMS));
+        return values;
+    }
+
+}
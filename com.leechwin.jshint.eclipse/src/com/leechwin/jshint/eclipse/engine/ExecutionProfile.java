@@ -0,0 +1,91 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.Locale;
+
+import org.mozilla.javascript.Context;
+
+/**
+ * How Rhino runs jshint.js: interpreted or compiled to bytecode, and how much it keeps around for debugging. The
+ * trade-off is between how quickly the first engine is ready and how fast lints run once the JIT has caught up, so
+ * short IDE sessions and long CI runs may want different profiles.
+ * @author leechwin1@gmail.com
+ */
+public enum ExecutionProfile {
+
+    /** Interpret jshint.js, which needs no bytecode generation at all. Slowest lints, but the quickest start. */
+    FAST_START("fast-start", -1, false, false),
+
+    /** Rhino's own defaults: compiled at runtime without optimizations. */
+    BALANCED("balanced", 0, false, true),
+
+    /** Compiled at runtime with every optimization, and no debug information or source kept. */
+    MAX_THROUGHPUT("max-throughput", 9, false, false);
+
+    /** The system property that selects a profile, overriding the preferences. */
+    public static final String SYSTEM_PROPERTY = "jshint.executionProfile";
+
+    /** The profile used if nothing else is chosen. */
+    public static final ExecutionProfile DEFAULT = BALANCED;
+
+    private final String preference;
+    private final int optimizationLevel;
+    private final boolean generatingDebug;
+    private final boolean generatingSource;
+
+    private ExecutionProfile(String preference, int optimizationLevel, boolean generatingDebug,
+            boolean generatingSource) {
+        this.preference = preference;
+        this.optimizationLevel = optimizationLevel;
+        this.generatingDebug = generatingDebug;
+        this.generatingSource = generatingSource;
+    }
+
+    /**
+     * @return the value of this profile in the preferences and {@link #SYSTEM_PROPERTY}.
+     */
+    public String getPreference() {
+        return preference;
+    }
+
+    /**
+     * @return Rhino's optimization level: -1 to interpret, 0 to 9 to compile.
+     */
+    public int getOptimizationLevel() {
+        return optimizationLevel;
+    }
+
+    /**
+     * Set up {@code cx} to run scripts this way.
+     */
+    void configure(Context cx) {
+        // jshint.js is plain ES5; later language versions reserve words that it uses as names.
+        cx.setLanguageVersion(Context.VERSION_DEFAULT);
+        cx.setOptimizationLevel(optimizationLevel);
+        cx.setGeneratingDebug(generatingDebug);
+        cx.setGeneratingSource(generatingSource);
+    }
+
+    /**
+     * Find a profile by its {@link #getPreference() preference value} or its name, ignoring case.
+     * @return the profile, or {@code fallback} if there is none by that name.
+     */
+    public static ExecutionProfile fromPreference(String value, ExecutionProfile fallback) {
+        if (value != null) {
+            String wanted = value.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+            for (ExecutionProfile profile : values()) {
+                if (profile.preference.equals(wanted)) {
+                    return profile;
+                }
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * @return the profile named by {@link #SYSTEM_PROPERTY}, or {@code fallback} if it isn't set or isn't valid.
+     */
+    public static ExecutionProfile fromSystemProperty(ExecutionProfile fallback) {
+        return fromPreference(System.getProperty(SYSTEM_PROPERTY), fallback);
+    }
+
+}
@@ -10,12 +10,27 @@ public class Issue {
     private final int character;
     private final String reason;
     private final String id;
+    private final String code;
+    private final int length;
 
     public Issue(int line, int character, String reason, String id) {
+        this(line, character, reason, id, null);
+    }
+
+    public Issue(int line, int character, String reason, String id, String code) {
+        this(line, character, reason, id, code, 0);
+    }
+
+    /**
+     * @param length the length of the token that the issue is about, or 0 if it isn't known.
+     */
+    public Issue(int line, int character, String reason, String id, String code, int length) {
         this.line = line;
         this.character = character;
         this.reason = reason;
         this.id = id;
+        this.code = code;
+        this.length = length;
     }
 
     /**
@@ -26,12 +41,19 @@ public class Issue {
     }
 
     /**
-     * @return the position of the issue within the line. Starts at 0.
+     * @return the position of the issue within the line. Starts at 1.
      */
     public int getCharacter() {
         return character;
     }
 
+    /**
+     * @return the length of the token that the issue is about, or 0 if it isn't known.
+     */
+    public int getLength() {
+        return length;
+    }
+
     /**
      * @return a textual description of this issue.
      */
@@ -46,6 +68,20 @@ public class Issue {
         return id;
     }
 
+    /**
+     * @return the jshint code of the issue, such as "W033", or null if unknown.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return true if this issue is a syntax error, which the code can't run with, rather than a warning.
+     */
+    public boolean isError() {
+        return code != null && code.startsWith("E");
+    }
+
     @Override
     public String toString() {
         return getLine() + ":" + getCharacter() + ":" + getReason() + ":" + getId();
@@ -3,9 +3,9 @@ package com.leechwin.jshint.eclipse.engine;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
-import java.util.EnumMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ContextAction;
@@ -15,34 +15,50 @@ import org.mozilla.javascript.NativeArray;
 import org.mozilla.javascript.NativeObject;
 import org.mozilla.javascript.Scriptable;
 
-import com.leechwin.jshint.eclipse.Activator;
-import com.leechwin.jshint.eclipse.preferences.PreferencesInitializer;
-
 /**
- * A utility class to check JavaScript source code for potential problems.
+ * A utility class to check JavaScript source code for potential problems. This is the {@link LintEngine} of the
+ * default, Rhino, backend.
  * @author leechwin1@gmail.com
  * @author dom
  * @see JsHintBuilder Construction of lint
  */
-public class JsHint {
+public class JsHint implements LintEngine {
+
+    private static final JsHintConfig NO_CONFIG = new JsHintConfig(Collections.<Option, String> emptyMap(),
+            Collections.<String> emptyList(), "");
 
-    private final Map<Option, Object> options = new EnumMap<Option, Object>(Option.class);
+    /** The arguments of a jshint message, which may quote the token that it is about. */
+    private static final String[] TOKEN_ARGUMENTS = { "a", "b", "c", "d" };
+
+    /** The code of the issue reported when a lint goes over its {@link LintLimits}. */
+    public static final String TIMEOUT_CODE = "timeout";
 
     private final ContextFactory contextFactory;
 
     private final Function lintFunc;
 
+    private volatile JsHintConfig config = NO_CONFIG;
+
+    /** The config that {@link #optionsObject} and {@link #globalsObject} were built from. */
+    private JsHintConfig builtFor;
+
+    private Scriptable optionsObject;
+
+    private Scriptable globalsObject;
+
     /**
-     * singleton instance
+     * Holder for the singleton instance, so that jshint.js is only loaded the first time the instance is asked for.
      */
-    protected final static JsHint instance = new JsHintBuilder().fromDefault();
+    private static class InstanceHolder {
+        private static final JsHint instance = new JsHintBuilder().fromDefault();
+    }
 
     /**
      * access method for singleton object
      * @return singleton instance
      */
     public static JsHint getInstance() {
-        return instance;
+        return InstanceHolder.instance;
     }
 
     /**
@@ -55,48 +71,118 @@ public class JsHint {
     }
 
     /**
-     * Add an option to change the behaviour of the lint. This will be passed in with a value of "true".
-     * @param o Any {@link Option}.
+     * @return the configuration used by {@link #lint(String, String)}.
      */
-    public void addOption(Option o) {
-        options.put(o, Boolean.TRUE);
+    public JsHintConfig getConfig() {
+        return config;
     }
 
     /**
-     * Add an option to change the behaviour of the lint. The option will be parsed as appropriate using an {@link OptionParser}.
-     * @param o Any {@link Option}.
-     * @param arg The value to associate with <i>o</i>.
+     * Change the configuration used by {@link #lint(String, String)}.
      */
-    public void addOption(Option o, String arg) {
-        OptionParser optionParser = new OptionParser();
-        options.put(o, optionParser.parse(o.getType(), arg));
+    public void setConfig(JsHintConfig config) {
+        this.config = config;
     }
 
     @NeedsContext
-    private JsHintResult doLint(final String javaScript) {
+    private JsHintResult doLint(final String systemId, final String javaScript, final JsHintConfig lintConfig, final LintLimits limits) {
         return (JsHintResult) contextFactory.call(new ContextAction() {
             public JsHintResult run(Context cx) {
+                if (builtFor != lintConfig) {
+                    optionsObject = lintConfig.newOptionsObject(cx, lintFunc);
+                    globalsObject = lintConfig.newGlobalsObject(cx, lintFunc);
+                    builtFor = lintConfig;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    // Small sources never reach the first check in LintContextFactory, so check before starting.
+                    throw new CancellationException("Lint canceled");
+                }
                 String src = javaScript == null ? "" : javaScript;
-                Object[] args = new Object[] { src, optionsAsJavaScriptObject(), optionsAsGlobalObject() };
-                lintFunc.call(cx, lintFunc, null, args);
-                NativeArray nativeList = (NativeArray) lintFunc.get("errors", lintFunc);
-
-                ArrayList<Issue> issueList = new ArrayList<Issue>();
-                for (int i = 0; i < nativeList.getLength(); i++) {
-                    NativeObject nativeObj = (NativeObject) nativeList.get(i);
-                    Issue issue = new Issue(
-                            ((Double) nativeObj.get("line")).intValue(),
-                            ((Double) nativeObj.get("character")).intValue(),
-                            (String) nativeObj.get("reason"),
-                            (String) nativeObj.get("id"));
-                    issueList.add(issue);
+                Object[] args = new Object[] { src, optionsObject, globalsObject };
+                long start = System.nanoTime();
+                LintEvent lintEvent = LintEvent.begin(LintEvent.Phase.LINT);
+                LintContextFactory.begin(cx, limits);
+                try {
+                    lintFunc.call(cx, lintFunc, null, args);
+                } catch (LintTimeoutError e) {
+                    Issue issue = new Issue(1, 1, e.getMessage(), "(error)", TIMEOUT_CODE);
+                    lintEvent.file(systemId, src.length(), 1).commit();
+                    return new JsHintResult(Collections.singletonList(issue), true, e.getElapsedMillis());
+                } catch (LintCanceledError e) {
+                    throw new CancellationException(e.getMessage());
+                } finally {
+                    LintContextFactory.end(cx);
                 }
-
-                return new JsHintResult(issueList);
+                long elapsed = (System.nanoTime() - start) / 1000000;
+                lintEvent.end();
+                LintEvent convertEvent = LintEvent.begin(LintEvent.Phase.CONVERT);
+                List<Issue> issues = readIssues(lintFunc);
+                convertEvent.end();
+                lintEvent.file(systemId, src.length(), issues.size()).commit();
+                convertEvent.file(systemId, src.length(), issues.size()).commit();
+                return new JsHintResult(issues, false, elapsed);
             }
         });
     }
 
+    /**
+     * Pull the issues found by the last lint out of the <code>errors</code> property of the lint function.
+     */
+    static List<Issue> readIssues(Function lintFunc) {
+        NativeArray nativeList = (NativeArray) lintFunc.get("errors", lintFunc);
+
+        ArrayList<Issue> issueList = new ArrayList<Issue>();
+        for (int i = 0; i < nativeList.getLength(); i++) {
+            NativeObject nativeObj = (NativeObject) nativeList.get(i);
+            if (nativeObj == null) {
+                // jshint adds a null after an error it can't recover from.
+                continue;
+            }
+            int character = (int) Context.toNumber(nativeObj.get("character"));
+            Issue issue = new Issue(
+                    (int) Context.toNumber(nativeObj.get("line")),
+                    character,
+                    Util.stringValue(nativeObj.get("reason")),
+                    Util.stringValue(nativeObj.get("id")),
+                    Util.stringValue(nativeObj.get("code")),
+                    tokenLength(nativeObj, character));
+            issueList.add(issue);
+        }
+        return issueList;
+    }
+
+    /**
+     * Work out the length of the token that an issue is about. jshint doesn't report it, but most messages quote the
+     * token as one of their arguments <code>a</code> to <code>d</code>, so look for one of those at the issue's
+     * position in its <code>evidence</code>, the text of the line.
+     * @return the length, or 0 if it can't be found.
+     */
+    private static int tokenLength(NativeObject nativeObj, int character) {
+        Object evidence = nativeObj.get("evidence");
+        if (!(evidence instanceof CharSequence)) {
+            return 0;
+        }
+        String line = evidence.toString();
+        int index = LineIndex.indexOf(line, character, LineIndex.JSHINT_TAB_WIDTH);
+        for (String name : TOKEN_ARGUMENTS) {
+            Object argument = nativeObj.get(name);
+            if (argument instanceof CharSequence) {
+                String token = argument.toString();
+                if (token.length() > 0 && line.startsWith(token, index)) {
+                    return token.length();
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the lint function defined by jshint.js.
+     */
+    Function getLintFunction() {
+        return lintFunc;
+    }
+
     /**
      * Check for problems in a {@link Reader} which contains JavaScript source.
      * @param systemId a filename
@@ -114,57 +200,46 @@ public class JsHint {
      * @return a {@link JsHintResult}.
      */
     public JsHintResult lint(String systemId, String javaScript) {
-        // This is synchronized, even though Rhino is thread safe, because we have multiple
-        // accesses to the scope, which store state in between them. This synchronized block
-        // is slightly larger than I would like, but in practical terms, it doesn't make much
-        // difference. The cost of running lint is larger than the cost of pulling out the
-        // results.
-        synchronized (this) {
-            return doLint(javaScript);
-        }
+        return lint(systemId, javaScript, config);
     }
 
     /**
-     * Turn the set of options into a JavaScript object, where the key is the name of the option and the value is true.
+     * Check for problems in JavaScript source.
+     * @param systemId a filename
+     * @param javaScript a String of JavaScript source code.
+     * @param lintConfig the configuration to lint with.
+     * @return a {@link JsHintResult}.
      */
-    @NeedsContext
-    private Scriptable optionsAsJavaScriptObject() {
-        return (Scriptable) contextFactory.call(new ContextAction() {
-            public Object run(Context cx) {
-                // default option setting for Activator
-                Scriptable opts = cx.newObject(lintFunc);
-                for (Entry<Option, Object> entry : options.entrySet()) {
-                    String key = entry.getKey().getLowerName();
-                    // Use our "custom" version in order to get native arrays.
-                    Object value = Util.javaToJS(entry.getValue(), opts);
-                    opts.put(key, opts, value);
-                }
-                return opts;
-            }
-        });
-    }
-
-    @NeedsContext
-    private Scriptable optionsAsGlobalObject() {
-        return (Scriptable) contextFactory.call(new ContextAction() {
-            public Scriptable run(Context cx) {
-                Scriptable opts = cx.newObject(lintFunc);
-                String predefinedStrings = Activator.getDefault().getPreferenceStore().getString(PreferencesInitializer.PREDEF_ID);
-                String[] predefinedGlobalVariables = Util.split(predefinedStrings.replaceAll(" ", ""), ",");
-                // An array of strings containing global variables that the file is allowed readonly access.
-                for (String globalVariable : predefinedGlobalVariables) {
-                    opts.put(globalVariable, opts, true);
-                }
-                return opts;
-            }
-        });
+    public JsHintResult lint(String systemId, String javaScript, JsHintConfig lintConfig) {
+        return lint(systemId, javaScript, lintConfig, LintLimits.NONE);
     }
 
     /**
-     * Clear out all options that have been set with {@link #addOption(Option)}.
+     * Check for problems in JavaScript source, giving up if it takes too long.
+     * @param systemId a filename
+     * @param javaScript a String of JavaScript source code.
+     * @param lintConfig the configuration to lint with.
+     * @param limits how long the lint may run for.
+     * @return a {@link JsHintResult}, which has a single issue if the lint {@link JsHintResult#isTimedOut() timed out}.
+     * @throws CancellationException if the thread is interrupted while linting.
      */
-    public void resetOptions() {
-        options.clear();
+    @Override
+    public JsHintResult lint(String systemId, String javaScript, JsHintConfig lintConfig, LintLimits limits) {
+        // This is synchronized, even though Rhino is thread safe, because we have multiple
+        // accesses to the scope, which store state in between them. This synchronized block
+        // is slightly larger than I would like, but in practical terms, it doesn't make much
+        // difference. The cost of running lint is larger than the cost of pulling out the
+        // results.
+        LintMetrics metrics = LintMetrics.isRecording() ? LintMetrics.getInstance() : null;
+        synchronized (this) {
+            long start = System.nanoTime();
+            JsHintResult result = doLint(systemId, javaScript, lintConfig, limits);
+            if (metrics != null) {
+                metrics.linted(systemId, javaScript == null ? 0 : javaScript.length(), System.nanoTime() - start,
+                        result.isTimedOut());
+            }
+            return result;
+        }
     }
 
 }
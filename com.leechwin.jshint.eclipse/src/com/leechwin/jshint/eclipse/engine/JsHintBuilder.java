@@ -7,10 +7,15 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ContextFactory;
 import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.ScriptableObject;
 
 public class JsHintBuilder {
@@ -18,7 +23,47 @@ public class JsHintBuilder {
 
     private static final Charset UTF8 = Charset.forName("UTF-8");
 
-    private ContextFactory contextFactory = new ContextFactory();
+    /** The version banner at the top of jshint.js, e.g. <code>/*! 2.9.1 *&#47;</code>. */
+    private static final Pattern VERSION_BANNER = Pattern.compile("/\\*! (\\S+) \\*/");
+
+    /** How many lines at the top of jshint.js to search for {@link #VERSION_BANNER}. */
+    private static final int VERSION_BANNER_LINES = 16;
+
+    private static volatile String version;
+
+    /**
+     * Compiled classpath resources, shared by every builder. Compiling jshint.js is by far the most expensive part of
+     * creating an engine, and a compiled {@link Script} can be run in as many scopes as we like. Resources are keyed
+     * by the profile they were compiled with as well as their name.
+     */
+    private static final Map<String, Script> scripts = new ConcurrentHashMap<String, Script>();
+
+    private final ExecutionProfile profile;
+
+    private final ContextFactory contextFactory;
+
+    /**
+     * Create a builder whose engines run with the profile named by {@link ExecutionProfile#SYSTEM_PROPERTY}, or the
+     * default profile if it isn't set.
+     */
+    public JsHintBuilder() {
+        this(ExecutionProfile.fromSystemProperty(ExecutionProfile.DEFAULT));
+    }
+
+    /**
+     * Create a builder whose engines run with {@code profile}.
+     */
+    public JsHintBuilder(ExecutionProfile profile) {
+        this.profile = profile;
+        this.contextFactory = new LintContextFactory(profile);
+    }
+
+    /**
+     * @return how the engines run jshint.js.
+     */
+    public ExecutionProfile getProfile() {
+        return profile;
+    }
 
     /**
      * Initialize the scope from a jshint.js found in the classpath. Assumes a UTF-8 encoding.
@@ -38,19 +83,75 @@ public class JsHintBuilder {
      * @throws IOException if there are any problems reading the resource.
      */
     public JsHint fromClasspathResource(String resource, Charset encoding) throws IOException {
-        Reader reader = new BufferedReader(new InputStreamReader(getClass().getClassLoader()
-                .getResourceAsStream(resource), encoding));
-        return fromReader(reader, resource);
+        return fromScript(compiledResource(resource, encoding));
     }
 
     /**
-     * Initialize the scope with a default jshint.js.
+     * Return the compiled form of a classpath resource, compiling it on first use.
+     */
+    private Script compiledResource(String resource, Charset encoding) throws IOException {
+        String key = profile.name() + ":" + resource;
+        Script script = scripts.get(key);
+        if (script == null) {
+            synchronized (scripts) {
+                script = scripts.get(key);
+                if (script == null) {
+                    Reader reader = new BufferedReader(new InputStreamReader(getClass().getClassLoader()
+                            .getResourceAsStream(resource), encoding));
+                    try {
+                        script = compile(reader, resource);
+                    } finally {
+                        reader.close();
+                    }
+                    scripts.put(key, script);
+                }
+            }
+        }
+        return script;
+    }
+
+    /**
+     * Return the version of the default jshint.js, as given in its banner comment.
+     * @return the version, or "unknown" if there is no banner.
+     */
+    public String getVersion() {
+        if (version == null) {
+            String found = "unknown";
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getClassLoader()
+                        .getResourceAsStream(JSHINT_FILE), UTF8));
+                try {
+                    String line;
+                    for (int i = 0; i < VERSION_BANNER_LINES && (line = reader.readLine()) != null; i++) {
+                        Matcher matcher = VERSION_BANNER.matcher(line);
+                        if (matcher.find()) {
+                            found = matcher.group(1);
+                            break;
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                // Leave it as unknown; this only weakens cache keys.
+            }
+            version = found;
+        }
+        return version;
+    }
+
+    /**
+     * Initialize the scope with a default jshint.js, compiled according to the profile. The engine can enforce
+     * {@link LintLimits}.
      * @return a configured {@link JsHint}
      * @throws RuntimeException if we fail to load the default jshint.js.
      */
     public JsHint fromDefault() {
+        long start = System.nanoTime();
         try {
-            return fromClasspathResource(JSHINT_FILE);
+            JsHint lint = fromClasspathResource(JSHINT_FILE);
+            LintMetrics.getInstance().engineCreated(System.nanoTime() - start);
+            return lint;
         } catch (IOException e) {
             // We wrap and rethrow, as there's nothing a caller can do in this
             // case.
@@ -87,12 +188,32 @@ public class JsHintBuilder {
      * @return a configured {@link JsHint}
      * @throws IOException if there are any problems reading from {@code reader} .
      */
-    @NeedsContext
     public JsHint fromReader(Reader reader, String name) throws IOException {
+        return fromScript(compile(reader, name));
+    }
+
+    @NeedsContext
+    private Script compile(Reader reader, String name) throws IOException {
+        try {
+            Context cx = contextFactory.enterContext();
+            // Needed for compiled code to report to LintContextFactory, so that limits can be enforced.
+            cx.setGenerateObserverCount(true);
+            return cx.compileReader(reader, name, 1, null);
+        } finally {
+            Context.exit();
+        }
+    }
+
+    /**
+     * Run a compiled jshint.js in a fresh scope of its own. Each engine needs its own scope, as jshint keeps the state of
+     * the current lint in its closures, and lodash patches the standard objects on start up.
+     */
+    @NeedsContext
+    private JsHint fromScript(Script script) {
         try {
             Context cx = contextFactory.enterContext();
             ScriptableObject scope = cx.initStandardObjects();
-            cx.evaluateReader(scope, reader, name, 1, null);
+            script.exec(cx, scope);
             Function lintFunc = (Function) scope.get("JSHINT", scope);
             return new JsHint(contextFactory, lintFunc);
         } finally {
@@ -0,0 +1,145 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * An immutable snapshot of everything that a lint is configured with: the {@link Option}s, the predefined global
+ * variables and the version of jshint. A snapshot is built once, when the configuration changes, and shared by every
+ * lint that follows.
+ * @author leechwin1@gmail.com
+ */
+public final class JsHintConfig {
+
+    private final Map<Option, String> values;
+
+    private final Map<Option, Object> options;
+
+    private final List<String> globals;
+
+    private final String version;
+
+    private final String fingerprint;
+
+    /**
+     * Create a new snapshot. Each option value is parsed as appropriate using an {@link OptionParser}.
+     * @param values the unparsed value of each {@link Option} to set.
+     * @param globals the names of global variables that the code may read.
+     * @param version the version of jshint that the configuration is for.
+     */
+    public JsHintConfig(Map<Option, String> values, List<String> globals, String version) {
+        OptionParser optionParser = new OptionParser();
+        Map<Option, Object> parsed = new EnumMap<Option, Object>(Option.class);
+        StringBuilder config = new StringBuilder(version);
+        for (Entry<Option, String> entry : values.entrySet()) {
+            Option o = entry.getKey();
+            parsed.put(o, optionParser.parse(o.getType(), entry.getValue()));
+            config.append(',').append(o.getLowerName()).append('=').append(entry.getValue());
+        }
+        config.append(",globals=");
+        for (String global : globals) {
+            config.append(global).append(' ');
+        }
+        Map<Option, String> copy = new EnumMap<Option, String>(Option.class);
+        copy.putAll(values);
+        this.values = Collections.unmodifiableMap(copy);
+        this.options = Collections.unmodifiableMap(parsed);
+        this.globals = Collections.unmodifiableList(new ArrayList<String>(globals));
+        this.version = version;
+        this.fingerprint = JsHintResultCache.digest(config.toString());
+    }
+
+    /**
+     * Split a comma separated list of global variable names, as entered by the user.
+     */
+    public static List<String> parseGlobals(String predefinedStrings) {
+        List<String> list = new ArrayList<String>();
+        if (predefinedStrings != null) {
+            Collections.addAll(list, Util.split(predefinedStrings.replaceAll(" ", ""), ","));
+        }
+        return list;
+    }
+
+    /**
+     * Create a copy of this snapshot with one option changed.
+     * @param option the option to set.
+     * @param value the unparsed value of the option.
+     */
+    public JsHintConfig withOption(Option option, String value) {
+        Map<Option, String> changed = new EnumMap<Option, String>(Option.class);
+        changed.putAll(values);
+        changed.put(option, value);
+        return new JsHintConfig(changed, globals, version);
+    }
+
+    /**
+     * @return the parsed value of each option that is set.
+     */
+    public Map<Option, Object> getOptions() {
+        return options;
+    }
+
+    /**
+     * @return the names of the global variables that the code may read.
+     */
+    public List<String> getGlobals() {
+        return globals;
+    }
+
+    /**
+     * @return the version of jshint that the configuration is for.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return a digest of this configuration, which changes whenever anything that affects the result of a lint does.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Turn the set of options into a sealed JavaScript object, where the key is the name of the option.
+     * @param cx the current context.
+     * @param scope the scope of the lint function that the object will be passed to.
+     */
+    @NeedsContext
+    Scriptable newOptionsObject(Context cx, Scriptable scope) {
+        ScriptableObject opts = (ScriptableObject) cx.newObject(scope);
+        for (Entry<Option, Object> entry : options.entrySet()) {
+            String key = entry.getKey().getLowerName();
+            // Use our "custom" version in order to get native arrays.
+            Object value = Util.javaToJS(entry.getValue(), opts);
+            opts.put(key, opts, value);
+        }
+        opts.sealObject();
+        return opts;
+    }
+
+    /**
+     * Turn the predefined globals into a sealed JavaScript object, where each global is a key with the value true.
+     * @param cx the current context.
+     * @param scope the scope of the lint function that the object will be passed to.
+     */
+    @NeedsContext
+    Scriptable newGlobalsObject(Context cx, Scriptable scope) {
+        ScriptableObject opts = (ScriptableObject) cx.newObject(scope);
+        // An array of strings containing global variables that the file is allowed readonly access.
+        for (String globalVariable : globals) {
+            opts.put(globalVariable, opts, true);
+        }
+        opts.sealObject();
+        return opts;
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A fixed size pool of independently initialized {@link LintEngine}s, all from the same backend. Each engine owns its
+ * own state, such as the lint function and scope of a {@link JsHint}, so up to {@link #getSize()} files can be checked
+ * at the same time. Engines are created lazily, the first time that all existing engines are busy.
+ * @author leechwin1@gmail.com
+ * @see JsHintBuilder Construction of lint
+ */
+public class JsHintPool {
+
+    private final LintEngineProvider provider;
+
+    private final ExecutionProfile profile;
+
+    private final int size;
+
+    private final BlockingQueue<LintEngine> idle = new LinkedBlockingQueue<LintEngine>();
+
+    private int created;
+
+    private volatile JsHintConfig config = new JsHintConfig(Collections.<Option, String> emptyMap(),
+            Collections.<String> emptyList(), "");
+
+    private volatile LintLimits limits = LintLimits.NONE;
+
+    /**
+     * Create a new pool of Rhino engines.
+     * @param builder whose profile each engine is created with.
+     * @param size the maximum number of engines. Values below one are treated as one.
+     */
+    public JsHintPool(JsHintBuilder builder, int size) {
+        this(LintEngines.find(LintEngines.DEFAULT), builder.getProfile(), size);
+    }
+
+    /**
+     * Create a new pool.
+     * @param provider the backend that creates each engine.
+     * @param profile how the engines run jshint.
+     * @param size the maximum number of engines. Values below one are treated as one.
+     */
+    public JsHintPool(LintEngineProvider provider, ExecutionProfile profile, int size) {
+        this.provider = provider;
+        this.profile = profile;
+        this.size = Math.max(1, size);
+    }
+
+    /**
+     * @return the backend that creates the engines.
+     */
+    public LintEngineProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return the maximum number of engines in this pool.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the configuration used by {@link #lint(String, String)}.
+     */
+    public JsHintConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Change the configuration used by {@link #lint(String, String)}. Lints already in progress are not affected.
+     */
+    public void setConfig(JsHintConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * @return how long each lint may run for.
+     */
+    public LintLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Change how long each lint may run for. Lints already in progress are not affected.
+     */
+    public void setLimits(LintLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Check for problems in a {@link Reader} which contains JavaScript source.
+     * @param systemId a filename
+     * @param reader a {@link Reader} over JavaScript source code.
+     * @return a {@link JsHintResult}.
+     */
+    public JsHintResult lint(String systemId, Reader reader) throws IOException {
+        return lint(systemId, Util.readerToString(reader));
+    }
+
+    /**
+     * Check for problems in JavaScript source, using the first idle engine. Blocks if all engines are busy.
+     * @param systemId a filename
+     * @param javaScript a String of JavaScript source code.
+     * @return a {@link JsHintResult}.
+     */
+    public JsHintResult lint(String systemId, String javaScript) {
+        return lint(systemId, javaScript, config);
+    }
+
+    /**
+     * Check for problems in JavaScript source, using the first idle engine. Blocks if all engines are busy. The lint is
+     * abandoned if it goes over the pool's {@link #getLimits() limits}.
+     * @param systemId a filename
+     * @param javaScript a String of JavaScript source code.
+     * @param lintConfig the configuration to lint with.
+     * @return a {@link JsHintResult}.
+     */
+    public JsHintResult lint(String systemId, String javaScript, JsHintConfig lintConfig) {
+        LintEngine lint = borrow();
+        try {
+            return lint.lint(systemId, javaScript, lintConfig, limits);
+        } finally {
+            idle.add(lint);
+        }
+    }
+
+    /**
+     * Take an idle engine, creating a new one if the pool is not yet full. How long this waits for an engine to come
+     * back is recorded as {@link LintMetrics#getLockWait() lock wait}.
+     */
+    private LintEngine borrow() {
+        LintEngine lint = idle.poll();
+        if (lint != null) {
+            waited(0);
+            return lint;
+        }
+        if (reserve()) {
+            // Creating the engine is recorded separately.
+            return newEngine();
+        }
+        long waitStart = System.nanoTime();
+        try {
+            lint = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for an engine");
+        }
+        waited(System.nanoTime() - waitStart);
+        return lint;
+    }
+
+    private static void waited(long nanos) {
+        if (LintMetrics.isRecording()) {
+            LintMetrics.getInstance().lockWaited(nanos);
+        }
+    }
+
+    /** Claim a slot for a new engine, if any are left. */
+    private synchronized boolean reserve() {
+        if (created < size) {
+            created++;
+            return true;
+        }
+        return false;
+    }
+
+    private LintEngine newEngine() {
+        try {
+            return provider.newEngine(profile);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                created--;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.leechwin.jshint.eclipse.engine;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -11,15 +12,59 @@ public class JsHintResult {
 
     private final List<Issue> issues = new ArrayList<Issue>();
 
+    private final boolean timedOut;
+
+    private final long elapsedMillis;
+
     JsHintResult(List<Issue> issues) {
+        this(issues, false, 0);
+    }
+
+    /**
+     * Create a result. This is public so that other {@link LintEngine}s can report what they found.
+     * @param issues the issues found.
+     * @param timedOut whether the lint went over its {@link LintLimits}.
+     * @param elapsedMillis how long the lint took.
+     */
+    public JsHintResult(List<Issue> issues, boolean timedOut, long elapsedMillis) {
         this.issues.addAll(issues);
+        this.timedOut = timedOut;
+        this.elapsedMillis = elapsedMillis;
     }
 
     /**
-     * Return a list of all issues that lint found with this source code.
+     * Return a list of all issues that lint found with this source code. The list can't be modified.
      */
     public List<Issue> getIssues() {
-        return issues;
+        return Collections.unmodifiableList(issues);
+    }
+
+    /**
+     * @return true if the lint went over its {@link LintLimits}, in which case the only issue says so.
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * @return how long the lint took, or zero if the result didn't come from a lint just now.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Return a result holding only the syntax errors in this one.
+     * @see Issue#isError()
+     */
+    public JsHintResult errorsOnly() {
+        List<Issue> errors = new ArrayList<Issue>();
+        for (Issue issue : issues) {
+            if (issue.isError() || timedOut) {
+                errors.add(issue);
+            }
+        }
+        return new JsHintResult(errors, timedOut, elapsedMillis);
     }
 
 }
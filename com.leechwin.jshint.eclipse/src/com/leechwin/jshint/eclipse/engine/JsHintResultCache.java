@@ -0,0 +1,171 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of lint results. Results are keyed by a digest of the source code together
+ * with a fingerprint of everything else that affects the result (options, predefined globals, jshint version), so an
+ * unchanged file never needs to be linted twice. Results can also be backed by a {@link JsHintResultStore}, so that
+ * they survive a restart.
+ * @author leechwin1@gmail.com
+ */
+public class JsHintResultCache {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Map<String, JsHintResult> results;
+
+    private long hits;
+
+    private long misses;
+
+    private long storeHits;
+
+    private volatile JsHintResultStore store;
+
+    /**
+     * @param maxEntries the number of results to keep before discarding the least recently used.
+     */
+    public JsHintResultCache(final int maxEntries) {
+        this.results = new LinkedHashMap<String, JsHintResult>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsHintResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Make the key under which the result of linting {@code javaScript} is cached.
+     * @param javaScript the source code.
+     * @param fingerprint identifies the configuration the source is linted with.
+     */
+    public static String key(String javaScript, String fingerprint) {
+        return digest(javaScript) + ":" + fingerprint;
+    }
+
+    /**
+     * Return a hex encoded SHA-1 digest of {@code text}.
+     */
+    public static String digest(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(text.getBytes(UTF8));
+            char[] hex = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM has to provide SHA-1.
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Back this cache with a persistent store. Results missing from memory are looked for in the store, and every new
+     * result is added to it.
+     * @param store the store, or null to stop using one.
+     */
+    public void setStore(JsHintResultStore store) {
+        this.store = store;
+    }
+
+    /**
+     * @return the persistent store backing this cache, or null.
+     */
+    public JsHintResultStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return the cached result for {@code key}, or null.
+     * @throws IOException if the persistent store can't be read.
+     */
+    public JsHintResult get(String key) throws IOException {
+        synchronized (this) {
+            JsHintResult result = results.get(key);
+            if (result != null) {
+                hits++;
+                LintMetrics.getInstance().cacheLookedUp(true);
+                return result;
+            }
+        }
+        JsHintResultStore currentStore = store;
+        JsHintResult result = currentStore == null ? null : currentStore.get(key);
+        synchronized (this) {
+            if (result == null) {
+                misses++;
+            } else {
+                hits++;
+                storeHits++;
+                results.put(key, result);
+            }
+        }
+        LintMetrics.getInstance().cacheLookedUp(result != null);
+        return result;
+    }
+
+    /**
+     * Cache {@code result}, both in memory and in the persistent store.
+     * @throws IOException if the persistent store can't be written.
+     */
+    public void put(String key, JsHintResult result) throws IOException {
+        putInMemory(key, result);
+        JsHintResultStore currentStore = store;
+        if (currentStore != null) {
+            currentStore.put(key, result);
+        }
+    }
+
+    /**
+     * Cache {@code result} in memory only. This suits source that hasn't been saved, which is likely to be gone by the
+     * next restart and shouldn't end up on disk.
+     */
+    public synchronized void putInMemory(String key, JsHintResult result) {
+        results.put(key, result);
+    }
+
+    /** Discard every cached result. */
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    /**
+     * @return the number of results currently cached.
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * @return how many lookups found a result.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return how many of the {@link #getHits() hits} were read from the persistent store.
+     */
+    public synchronized long getStoreHits() {
+        return storeHits;
+    }
+
+    /**
+     * @return how many lookups found nothing.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+}
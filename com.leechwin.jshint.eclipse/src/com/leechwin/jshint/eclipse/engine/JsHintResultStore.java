@@ -0,0 +1,459 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * An append-only file of lint results, so that cached results outlive the IDE session. The file is memory mapped for
+ * reading, and an index of where each key lives is kept in memory.
+ * <p>
+ * The file starts with {@link #MAGIC} and {@link #FORMAT}, followed by any number of records:
+ * <pre>
+ * int     length of the rest of the record
+ * string  key
+ * int     number of issues
+ * issues  int line, int character, string reason, string id, string code, int length
+ * </pre>
+ * Each string is an int byte count followed by UTF-8. A later record for a key replaces any earlier one, so the file
+ * accumulates dead records until it is rewritten by {@link #compact()}. Each compaction writes a new generation of the
+ * file, as a mapped file can't be replaced on every platform.
+ * <p>
+ * Nothing in the file is trusted: a record that doesn't parse within its own length is treated as the end of the
+ * file, which is truncated there.
+ * @author leechwin1@gmail.com
+ */
+public class JsHintResultStore {
+
+    /** "JSHC" */
+    private static final int MAGIC = 0x4a534843;
+
+    private static final int FORMAT = 3;
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final String PREFIX = "results-";
+
+    private static final String SUFFIX = ".bin";
+
+    /** Files smaller than this are never worth compacting. */
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** The smallest an issue can be: three ints and three empty strings. */
+    private static final int MIN_ISSUE_SIZE = 4 * 6;
+
+    /** Where a record lives in the file. */
+    private static class Record {
+        private final long offset;
+        private final int length;
+
+        Record(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /** The size of the record, including its length prefix. */
+        int size() {
+            return 4 + length;
+        }
+    }
+
+    private final File directory;
+
+    private final Map<String, Record> index;
+
+    /** Held for the whole of a compaction, so that only one runs at a time. */
+    private final Object compactionLock = new Object();
+
+    private int generation;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer mapped;
+
+    /** The offset at which the next record will be written. */
+    private long end;
+
+    /** The total size of the records in {@link #index}. */
+    private long liveBytes;
+
+    /**
+     * Open the store in {@code directory}, creating it if need be.
+     * @param directory where to keep the store's files.
+     * @param maxEntries the number of results to keep; the least recently used are dropped at the next compaction.
+     * @throws IOException if the store can't be opened.
+     */
+    public JsHintResultStore(File directory, final int maxEntries) throws IOException {
+        this.directory = directory;
+        this.index = new LinkedHashMap<String, Record>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Record> eldest) {
+                if (size() > maxEntries) {
+                    liveBytes -= eldest.getValue().size();
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        open();
+    }
+
+    /** Open the newest generation of the file, deleting any older ones, and index its records. */
+    private void open() throws IOException {
+        for (File old : generations()) {
+            int gen = generationOf(old);
+            if (gen > generation) {
+                generation = gen;
+            }
+        }
+        for (File old : generations()) {
+            if (generationOf(old) != generation) {
+                old.delete();
+            }
+        }
+
+        channel = new RandomAccessFile(fileFor(generation), "rw").getChannel();
+        long size = channel.size();
+        if (size < HEADER_SIZE || !validHeader()) {
+            channel.truncate(0);
+            writeHeader(channel);
+            end = HEADER_SIZE;
+            return;
+        }
+
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        long pos = HEADER_SIZE;
+        while (pos + 4 <= size) {
+            int length = mapped.getInt((int) pos);
+            if (length < 0 || pos + 4 + length > size) {
+                // A record that was only partly written.
+                break;
+            }
+            Record record = new Record(pos, length);
+            String key = checkRecord(record);
+            if (key == null) {
+                break;
+            }
+            addToIndex(key, record);
+            pos += record.size();
+        }
+        end = pos;
+        if (end < size) {
+            mapped = null;
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * Check that {@code record} parses, without building its issues.
+     * @return its key, or null if it is corrupt.
+     */
+    private String checkRecord(Record record) {
+        try {
+            ByteBuffer buf = recordBuffer(mapped, record);
+            String key = readString(buf);
+            int count = readCount(buf);
+            for (int i = 0; i < count; i++) {
+                buf.position(buf.position() + 8);
+                skipString(buf);
+                skipString(buf);
+                skipString(buf);
+                buf.getInt();
+            }
+            return buf.hasRemaining() ? null : key;
+        } catch (RuntimeException e) {
+            // Whatever the bytes are, they aren't a record.
+            return null;
+        }
+    }
+
+    private boolean validHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        return header.getInt() == MAGIC && header.getInt() == FORMAT;
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT);
+        header.flip();
+        writeFully(channel, header, 0);
+    }
+
+    private void addToIndex(String key, Record record) {
+        Record old = index.put(key, record);
+        if (old != null) {
+            liveBytes -= old.size();
+        }
+        liveBytes += record.size();
+    }
+
+    private File[] generations() {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }
+        });
+        return files == null ? new File[0] : files;
+    }
+
+    private static int generationOf(File file) {
+        String name = file.getName();
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private File fileFor(int gen) {
+        return new File(directory, PREFIX + gen + SUFFIX);
+    }
+
+    /**
+     * @return the stored result for {@code key}, or null.
+     */
+    public synchronized JsHintResult get(String key) throws IOException {
+        Record record = index.get(key);
+        if (record == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buf = recordBuffer(mappedTo(record.offset + record.size()), record);
+            readString(buf);
+            int count = readCount(buf);
+            List<Issue> issues = new ArrayList<Issue>(count);
+            for (int i = 0; i < count; i++) {
+                int line = buf.getInt();
+                int character = buf.getInt();
+                String reason = readString(buf);
+                String id = readString(buf);
+                String code = readString(buf);
+                int length = buf.getInt();
+                issues.add(new Issue(line, character, reason, id, code.length() == 0 ? null : code, length));
+            }
+            return new JsHintResult(issues);
+        } catch (RuntimeException e) {
+            // The file has been changed under us; forget the record, and lint again.
+            liveBytes -= index.remove(key).size();
+            return null;
+        }
+    }
+
+    /** Append the result for {@code key}. */
+    public synchronized void put(String key, JsHintResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        writeString(out, key);
+        out.writeInt(result.getIssues().size());
+        for (Issue issue : result.getIssues()) {
+            out.writeInt(issue.getLine());
+            out.writeInt(issue.getCharacter());
+            writeString(out, issue.getReason());
+            writeString(out, issue.getId());
+            writeString(out, issue.getCode());
+            out.writeInt(issue.getLength());
+        }
+        out.flush();
+
+        ByteBuffer buf = ByteBuffer.wrap(bytes.toByteArray());
+        int length = buf.remaining() - 4;
+        buf.putInt(0, length);
+        writeFully(channel, buf, end);
+        addToIndex(key, new Record(end, length));
+        end += 4 + length;
+    }
+
+    /**
+     * @return the number of results in the store.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return true if enough of the file is taken up by replaced or dropped records that it's worth calling
+     *         {@link #compact()}.
+     */
+    public synchronized boolean needsCompaction() {
+        return end > MIN_COMPACTION_SIZE && end - HEADER_SIZE > 2 * liveBytes;
+    }
+
+    /**
+     * Rewrite the store into a new file holding only the live records. The records are copied from a snapshot without
+     * holding up {@link #get(String)} and {@link #put(String, JsHintResult)}; only records put since the snapshot are
+     * copied while they wait, as the new file is swapped in.
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Record> live;
+            ByteBuffer source;
+            int newGeneration;
+            synchronized (this) {
+                live = new ArrayList<Record>(index.values());
+                source = mappedTo(end);
+                newGeneration = generation + 1;
+            }
+
+            File newFile = fileFor(newGeneration);
+            FileChannel newChannel = new RandomAccessFile(newFile, "rw").getChannel();
+            // Where each record of the snapshot ended up.
+            Map<Record, Record> moved = new HashMap<Record, Record>();
+            try {
+                newChannel.truncate(0);
+                writeHeader(newChannel);
+                long newEnd = HEADER_SIZE;
+                for (Record record : live) {
+                    newEnd = copy(source, record, newChannel, newEnd, moved);
+                }
+                synchronized (this) {
+                    if (!channel.isOpen()) {
+                        throw new IOException("The store was closed during compaction");
+                    }
+                    swap(newChannel, newGeneration, newEnd, moved);
+                }
+            } catch (IOException e) {
+                newChannel.close();
+                newFile.delete();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Make the compacted file current. Records put since the snapshot are copied across now; anything dropped from the
+     * index since then is left behind.
+     */
+    private void swap(FileChannel newChannel, int newGeneration, long newEnd, Map<Record, Record> moved)
+            throws IOException {
+        ByteBuffer source = mappedTo(end);
+        List<String> keys = new ArrayList<String>(index.size());
+        List<Record> newRecords = new ArrayList<Record>(index.size());
+        for (Entry<String, Record> entry : index.entrySet()) {
+            Record record = moved.get(entry.getValue());
+            if (record == null) {
+                newEnd = copy(source, entry.getValue(), newChannel, newEnd, moved);
+                record = moved.get(entry.getValue());
+            }
+            keys.add(entry.getKey());
+            newRecords.add(record);
+        }
+
+        File oldFile = fileFor(generation);
+        channel.close();
+        mapped = null;
+        // This fails where mapped files can't be deleted; open() will clean up next time.
+        oldFile.delete();
+
+        channel = newChannel;
+        generation = newGeneration;
+        end = newEnd;
+        liveBytes = 0;
+        // Re-insert in the same order, to keep the least recently used first.
+        index.clear();
+        for (int i = 0; i < keys.size(); i++) {
+            addToIndex(keys.get(i), newRecords.get(i));
+        }
+    }
+
+    /**
+     * Append {@code record}, found in {@code source}, to {@code target} at {@code position}, noting where it went in
+     * {@code moved}.
+     * @return the position after the copy.
+     */
+    private static long copy(ByteBuffer source, Record record, FileChannel target, long position,
+            Map<Record, Record> moved) throws IOException {
+        ByteBuffer buf = source.duplicate();
+        buf.limit((int) (record.offset + record.size()));
+        buf.position((int) record.offset);
+        writeFully(target, buf, position);
+        moved.put(record, new Record(position, record.length));
+        return position + record.size();
+    }
+
+    /** Close the file. The store can't be used after this. */
+    public synchronized void close() throws IOException {
+        mapped = null;
+        channel.close();
+    }
+
+    /** Return a view of the file that covers at least the first {@code limit} bytes. */
+    private ByteBuffer mappedTo(long limit) throws IOException {
+        if (mapped == null || mapped.capacity() < limit) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+        }
+        return mapped.duplicate();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = (s == null ? "" : s).getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** Return the body of {@code record}, after its length, as a buffer that ends where the record does. */
+    private static ByteBuffer recordBuffer(ByteBuffer file, Record record) {
+        ByteBuffer buf = file.duplicate();
+        buf.limit((int) (record.offset + record.size()));
+        buf.position((int) record.offset + 4);
+        return buf;
+    }
+
+    /** Read the number of issues in a record, checking that there is room for that many. */
+    private static int readCount(ByteBuffer buf) {
+        int count = buf.getInt();
+        if (count < 0 || count > buf.remaining() / MIN_ISSUE_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] bytes = new byte[readStringLength(buf)];
+        buf.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    private static void skipString(ByteBuffer buf) {
+        int length = readStringLength(buf);
+        buf.position(buf.position() + length);
+    }
+
+    private static int readStringLength(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0 || length > buf.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+}
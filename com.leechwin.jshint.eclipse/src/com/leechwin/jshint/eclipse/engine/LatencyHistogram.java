@@ -0,0 +1,108 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free histogram of durations, with buckets that double in width from one microsecond up to about half an
+ * hour. Percentiles are therefore accurate to within a factor of two, which is plenty for spotting regressions, and
+ * recording never allocates.
+ * @author leechwin1@gmail.com
+ */
+public final class LatencyHistogram {
+
+    /** Bucket {@code i} counts durations of less than 2<sup>i</sup> microseconds; the last one counts the rest. */
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /** Record one duration. */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /** @return how many durations have been recorded. */
+    public long getCount() {
+        return count.get();
+    }
+
+    /** @return the sum of all durations, in milliseconds. */
+    public double getTotalMillis() {
+        return totalNanos.get() / 1e6;
+    }
+
+    /** @return the average duration in milliseconds, or zero if there are none. */
+    public double getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : totalNanos.get() / 1e6 / n;
+    }
+
+    /** @return the median duration in milliseconds, to within a factor of two. */
+    public double getP50Millis() {
+        return percentileMillis(0.5);
+    }
+
+    /** @return the 90th percentile duration in milliseconds, to within a factor of two. */
+    public double getP90Millis() {
+        return percentileMillis(0.9);
+    }
+
+    /** @return the 99th percentile duration in milliseconds, to within a factor of two. */
+    public double getP99Millis() {
+        return percentileMillis(0.99);
+    }
+
+    /** @return the longest duration in milliseconds. */
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /**
+     * Estimate a percentile, as the upper bound of the bucket it falls in, capped at the longest duration seen.
+     * @param fraction between 0 and 1.
+     * @return the estimate in milliseconds, or zero if there are no durations.
+     */
+    public double percentileMillis(double fraction) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min((1L << i) / 1e3, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /** Forget everything recorded. Durations recorded at the same time may be partly lost. */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+}
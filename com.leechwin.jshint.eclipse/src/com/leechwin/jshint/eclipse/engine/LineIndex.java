@@ -0,0 +1,254 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.Arrays;
+
+/**
+ * The offset at which each line of a source file starts and ends, and where its tabs are, so that a line and column
+ * reported by lint can be turned into a character offset without scanning the source again.
+ * <p>
+ * jshint replaces each tab with {@code indent} spaces before it counts columns, so a column is only an offset on lines
+ * without tabs.
+ * @author leechwin1@gmail.com
+ */
+public final class LineIndex {
+
+    /**
+     * How many columns jshint counts a tab as: the value of its <code>indent</code> option, which is 4 unless set. The
+     * plugin has no <code>indent</code> option, and inline directives come too late to change it.
+     */
+    public static final int JSHINT_TAB_WIDTH = 4;
+
+    private static final int[] NO_TABS = new int[0];
+
+    private final int[] starts;
+
+    private final int[] ends;
+
+    private final int lineCount;
+
+    private final int length;
+
+    /** The offset of every tab, in order. */
+    private final int[] tabs;
+
+    /**
+     * @param starts the offset of the start of each line, in order.
+     * @param ends the offset just past the last character of each line, not counting its terminator.
+     * @param lineCount the number of lines.
+     * @param length the length of the source.
+     * @param tabs the offset of every tab, in order.
+     */
+    LineIndex(int[] starts, int[] ends, int lineCount, int length, int[] tabs) {
+        this.starts = starts;
+        this.ends = ends;
+        this.lineCount = lineCount;
+        this.length = length;
+        this.tabs = tabs;
+    }
+
+    /**
+     * Build an index by scanning {@code text}. A line ends at "\n", "\r\n" or a lone "\r", the same as in jshint.
+     */
+    public static LineIndex of(CharSequence text) {
+        Builder builder = new Builder();
+        builder.scan(text, 0, text.length());
+        return builder.build();
+    }
+
+    /**
+     * @return the number of lines.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the length of the source.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the length of the longest line, not counting line terminators.
+     */
+    public int getLongestLine() {
+        int longest = 0;
+        for (int line = 1; line <= lineCount; line++) {
+            longest = Math.max(longest, getLineEnd(line) - getLineStart(line));
+        }
+        return longest;
+    }
+
+    /**
+     * @return the average length of a line, including its terminator.
+     */
+    public int getAverageLine() {
+        return length / lineCount;
+    }
+
+    /**
+     * @param line a line number, starting at 1.
+     * @return the offset of the first character of {@code line}.
+     */
+    public int getLineStart(int line) {
+        return starts[line - 1];
+    }
+
+    /**
+     * @param line a line number, starting at 1.
+     * @return the offset just past the last character of {@code line}, not counting the line terminator.
+     */
+    public int getLineEnd(int line) {
+        return ends[line - 1];
+    }
+
+    /**
+     * Turn a position reported by jshint into an offset in the source, counting each tab as
+     * {@link #JSHINT_TAB_WIDTH} columns.
+     * @see #offsetOf(int, int, int)
+     */
+    public int offsetOf(int line, int character) {
+        return offsetOf(line, character, JSHINT_TAB_WIDTH);
+    }
+
+    /**
+     * Turn a position reported by lint into an offset in the source.
+     * @param line a line number, starting at 1.
+     * @param character a column, starting at 1. Columns beyond the end of the line are moved back to its last
+     *        character, and columns within a tab to the tab.
+     * @param tabWidth how many columns each tab counts as.
+     * @return the offset, or -1 if there is no such line.
+     */
+    public int offsetOf(int line, int character, int tabWidth) {
+        if (line < 1 || line > lineCount) {
+            return -1;
+        }
+        int start = getLineStart(line);
+        int end = getLineEnd(line);
+        int offset = start;
+        int column = 1;
+        int tab = Arrays.binarySearch(tabs, start);
+        for (tab = tab < 0 ? -tab - 1 : tab; tab < tabs.length && tabs[tab] < end; tab++) {
+            int run = tabs[tab] - offset;
+            if (character < column + run) {
+                break;
+            }
+            offset += run;
+            column += run;
+            if (character < column + tabWidth) {
+                return offset;
+            }
+            offset++;
+            column += tabWidth;
+        }
+        offset += Math.max(0, character - column);
+        if (offset >= end) {
+            offset = Math.max(start, end - 1);
+        }
+        return offset;
+    }
+
+    /**
+     * Return where a range reported by lint ends, without running past the end of its line.
+     * @param line a line number, starting at 1.
+     * @param start the offset of the range, from {@link #offsetOf(int, int)}.
+     * @param length the length of the range, or 0 if it isn't known, which is taken as one character.
+     * @return the offset just past the range.
+     */
+    public int endOf(int line, int start, int length) {
+        return Math.max(start, Math.min(start + Math.max(1, length), getLineEnd(line)));
+    }
+
+    /**
+     * Find the index in {@code text} of a column reported by lint, for a single line of text.
+     * @param text the line.
+     * @param character a column, starting at 1.
+     * @param tabWidth how many columns each tab counts as.
+     * @return the index, which is {@code text.length()} if the column is past the end of the line.
+     */
+    public static int indexOf(CharSequence text, int character, int tabWidth) {
+        int column = 1;
+        for (int i = 0; i < text.length(); i++) {
+            column += text.charAt(i) == '\t' ? tabWidth : 1;
+            if (column > character) {
+                return i;
+            }
+        }
+        return text.length();
+    }
+
+    /**
+     * Accumulates line starts while a source is read, one chunk at a time.
+     */
+    static final class Builder {
+        private int[] starts = new int[256];
+        private int[] ends = new int[256];
+        private int lineCount = 1;
+        private int length;
+        private boolean afterCr;
+        private int[] tabs = NO_TABS;
+        private int tabCount;
+
+        /** Add the line starts found in {@code chars[from, to)}, which follow everything scanned so far. */
+        void scan(char[] chars, int from, int to) {
+            for (int i = from; i < to; i++) {
+                newChar(chars[i]);
+            }
+        }
+
+        /** Add the line starts found in {@code text[from, to)}, which follow everything scanned so far. */
+        void scan(CharSequence text, int from, int to) {
+            for (int i = from; i < to; i++) {
+                newChar(text.charAt(i));
+            }
+        }
+
+        private void newChar(char c) {
+            if (afterCr && c != '\n') {
+                // A lone "\r", just before this character.
+                addLine(length - 1, length);
+            }
+            if (c == '\t') {
+                addTab(length);
+            }
+            length++;
+            if (c == '\n') {
+                addLine(afterCr ? length - 2 : length - 1, length);
+            }
+            afterCr = c == '\r';
+        }
+
+        /**
+         * End the current line, and start another.
+         * @param end the offset just past the last character of the current line.
+         * @param start the offset of the new line.
+         */
+        private void addLine(int end, int start) {
+            if (lineCount == starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+                ends = Arrays.copyOf(ends, ends.length * 2);
+            }
+            ends[lineCount - 1] = end;
+            starts[lineCount++] = start;
+        }
+
+        private void addTab(int offset) {
+            if (tabCount == tabs.length) {
+                tabs = Arrays.copyOf(tabs, Math.max(16, tabs.length * 2));
+            }
+            tabs[tabCount++] = offset;
+        }
+
+        LineIndex build() {
+            if (afterCr) {
+                addLine(length - 1, length);
+                afterCr = false;
+            }
+            ends[lineCount - 1] = length;
+            return new LineIndex(Arrays.copyOf(starts, lineCount), Arrays.copyOf(ends, lineCount), lineCount, length,
+                    Arrays.copyOf(tabs, tabCount));
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.leechwin.jshint.eclipse.engine;
+
+/**
+ * Thrown from inside Rhino when the thread running a lint is interrupted. Like {@link LintTimeoutError}, this is an
+ * {@link Error} so that jshint.js can't catch it.
+ * @author leechwin1@gmail.com
+ */
+public class LintCanceledError extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    public LintCanceledError() {
+        super("Lint canceled");
+    }
+
+}
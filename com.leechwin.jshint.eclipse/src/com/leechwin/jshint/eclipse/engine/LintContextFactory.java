@@ -0,0 +1,82 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+
+/**
+ * A {@link ContextFactory} that has Rhino report how many instructions it runs, so that a lint can be stopped once it
+ * goes over its {@link LintLimits}, or as soon as its thread is interrupted. Scripts must be compiled with
+ * {@link Context#setGenerateObserverCount(boolean)} for this to work in compiled mode, which {@link JsHintBuilder} always
+ * does. Every context is set up according to an {@link ExecutionProfile}.
+ * @author leechwin1@gmail.com
+ */
+class LintContextFactory extends ContextFactory {
+
+    /** How many instructions to run between checks of the budget. */
+    static final int OBSERVER_THRESHOLD = 100000;
+
+    /** The key under which a lint's {@link Budget} is kept in its {@link Context}. */
+    private static final Object BUDGET = Budget.class;
+
+    /** What a single lint has used of its limits so far. */
+    private static class Budget {
+        private final LintLimits limits;
+        private final long start = System.nanoTime();
+        private long instructions;
+
+        Budget(LintLimits limits) {
+            this.limits = limits;
+        }
+
+        void use(int count) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new LintCanceledError();
+            }
+            instructions += count;
+            long elapsed = (System.nanoTime() - start) / 1000000;
+            if (limits.getMaxInstructions() > 0 && instructions > limits.getMaxInstructions()) {
+                throw new LintTimeoutError("Lint timed out after " + instructions + " instructions", elapsed);
+            }
+            if (limits.getTimeoutMillis() > 0 && elapsed > limits.getTimeoutMillis()) {
+                throw new LintTimeoutError("Lint timed out after " + elapsed + " ms", elapsed);
+            }
+        }
+    }
+
+    private final ExecutionProfile profile;
+
+    LintContextFactory(ExecutionProfile profile) {
+        this.profile = profile;
+    }
+
+    @Override
+    protected Context makeContext() {
+        Context cx = super.makeContext();
+        profile.configure(cx);
+        cx.setInstructionObserverThreshold(OBSERVER_THRESHOLD);
+        return cx;
+    }
+
+    @Override
+    protected void observeInstructionCount(Context cx, int instructionCount) {
+        Budget budget = (Budget) cx.getThreadLocal(BUDGET);
+        if (budget != null) {
+            budget.use(instructionCount);
+        }
+    }
+
+    /**
+     * Start enforcing {@code limits} on whatever runs next in {@code cx}. Interrupts are noticed even without limits.
+     */
+    static void begin(Context cx, LintLimits limits) {
+        cx.putThreadLocal(BUDGET, new Budget(limits));
+    }
+
+    /**
+     * Stop enforcing limits in {@code cx}.
+     */
+    static void end(Context cx) {
+        cx.removeThreadLocal(BUDGET);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Something that runs jshint over JavaScript source. {@link JsHint}, which runs jshint.js in Rhino, is the default;
+ * other JavaScript runtimes can be plugged in through a {@link LintEngineProvider}.
+ * <p>
+ * An engine is only ever used by one thread at a time, so it may keep state between lints. A {@link JsHintPool}
+ * creates as many as it needs to lint files in parallel.
+ * @author leechwin1@gmail.com
+ */
+public interface LintEngine {
+
+    /**
+     * Check for problems in JavaScript source, giving up if it takes too long.
+     * @param systemId a filename, for messages.
+     * @param javaScript a String of JavaScript source code.
+     * @param lintConfig the configuration to lint with.
+     * @param limits how long the lint may run for. Engines that aren't
+     *            {@link LintEngineCapabilities#isInstructionLimited() instruction limited} only apply the timeout.
+     * @return a {@link JsHintResult}, which has a single issue with the code {@link JsHint#TIMEOUT_CODE} if the lint
+     *         {@link JsHintResult#isTimedOut() timed out}.
+     * @throws CancellationException if the thread is interrupted while linting.
+     */
+    JsHintResult lint(String systemId, String javaScript, JsHintConfig lintConfig, LintLimits limits);
+
+}
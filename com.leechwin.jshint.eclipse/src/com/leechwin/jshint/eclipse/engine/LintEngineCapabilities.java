@@ -0,0 +1,59 @@
+package com.leechwin.jshint.eclipse.engine;
+
+/**
+ * What a {@link LintEngineProvider} can do, so that backends can be told apart and chosen for a workload.
+ * @author leechwin1@gmail.com
+ */
+public final class LintEngineCapabilities {
+
+    private final String name;
+
+    private final String version;
+
+    private final boolean instructionLimited;
+
+    private final boolean profiled;
+
+    /**
+     * @param name the name of the backend, for people.
+     * @param version the version of jshint that the backend runs. This goes into the cache keys of results, so a
+     *            backend whose results may differ from another's for the same jshint should include its own name.
+     * @param instructionLimited whether the backend applies {@link LintLimits#getMaxInstructions()}.
+     * @param profiled whether the backend runs differently depending on the {@link ExecutionProfile}.
+     */
+    public LintEngineCapabilities(String name, String version, boolean instructionLimited, boolean profiled) {
+        this.name = name;
+        this.version = version;
+        this.instructionLimited = instructionLimited;
+        this.profiled = profiled;
+    }
+
+    /**
+     * @return the name of the backend, for people.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the version of jshint that the backend runs, as used in {@link JsHintConfig#getVersion()}.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return whether the backend applies {@link LintLimits#getMaxInstructions()}, as well as the timeout.
+     */
+    public boolean isInstructionLimited() {
+        return instructionLimited;
+    }
+
+    /**
+     * @return whether the backend runs differently depending on the {@link ExecutionProfile}.
+     */
+    public boolean isProfiled() {
+        return profiled;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.leechwin.jshint.eclipse.engine;
+
+/**
+ * A backend that creates {@link LintEngine}s. Backends are found by {@link LintEngines}, either through
+ * {@link java.util.ServiceLoader}, by listing the implementation in
+ * <code>META-INF/services/com.leechwin.jshint.eclipse.engine.LintEngineProvider</code>, or as OSGi services registered
+ * under this interface. Implementations must be thread safe.
+ * @author leechwin1@gmail.com
+ * @see RhinoLintEngineProvider The default backend
+ */
+public interface LintEngineProvider {
+
+    /**
+     * @return the name that the backend is chosen by, in the preferences and {@link LintEngines#SYSTEM_PROPERTY}.
+     */
+    String getId();
+
+    /**
+     * @return what the backend can do.
+     */
+    LintEngineCapabilities getCapabilities();
+
+    /**
+     * Create a new engine, ready to lint.
+     * @param profile how the engine should run jshint, which backends without such choices ignore.
+     * @return the engine.
+     * @throws RuntimeException if the engine can't be created.
+     */
+    LintEngine newEngine(ExecutionProfile profile);
+
+}
@@ -0,0 +1,117 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link LintEngineProvider}s that are available. Those listed in <code>META-INF/services</code> are found with a
+ * {@link ServiceLoader} the first time they are asked for; under OSGi, the activator also {@link #register registers}
+ * backends offered as services by other bundles. The Rhino backend is always available, and is the default.
+ * @author leechwin1@gmail.com
+ */
+public final class LintEngines {
+
+    /** The system property that selects a backend by id, overriding the preferences. */
+    public static final String SYSTEM_PROPERTY = "jshint.engine";
+
+    /** The id of the backend used if nothing else is chosen. */
+    public static final String DEFAULT = RhinoLintEngineProvider.ID;
+
+    /** Backends found by the {@link ServiceLoader}, by id, or null until they are first asked for. */
+    private static Map<String, LintEngineProvider> discovered;
+
+    /** Backends registered as OSGi services, by id. */
+    private static final Map<String, LintEngineProvider> registered = new LinkedHashMap<String, LintEngineProvider>();
+
+    private LintEngines() {
+    }
+
+    /**
+     * @return every available backend, the default first.
+     */
+    public static synchronized List<LintEngineProvider> getProviders() {
+        Map<String, LintEngineProvider> all = new LinkedHashMap<String, LintEngineProvider>(discovered());
+        for (LintEngineProvider provider : registered.values()) {
+            if (!all.containsKey(provider.getId())) {
+                all.put(provider.getId(), provider);
+            }
+        }
+        return new ArrayList<LintEngineProvider>(all.values());
+    }
+
+    /**
+     * @return the backend with the id {@code id}, or null if there is none.
+     */
+    public static synchronized LintEngineProvider find(String id) {
+        if (id == null) {
+            return null;
+        }
+        LintEngineProvider provider = discovered().get(id.trim());
+        return provider != null ? provider : registered.get(id.trim());
+    }
+
+    /**
+     * Choose the backend named by {@link #SYSTEM_PROPERTY}, or else the one with the id {@code preferred}, or else the
+     * default. A name that matches no backend is passed over, as the bundle that provided it may have gone.
+     * @param preferred the id chosen in the preferences, which may be null.
+     * @return the backend.
+     */
+    public static LintEngineProvider select(String preferred) {
+        LintEngineProvider provider = find(System.getProperty(SYSTEM_PROPERTY));
+        if (provider == null) {
+            provider = find(preferred);
+        }
+        return provider != null ? provider : find(DEFAULT);
+    }
+
+    /**
+     * Make a backend available, unless another one already has its id.
+     * @return whether it was added.
+     */
+    public static synchronized boolean register(LintEngineProvider provider) {
+        String id = provider.getId();
+        if (discovered().containsKey(id) || registered.containsKey(id)) {
+            return false;
+        }
+        registered.put(id, provider);
+        return true;
+    }
+
+    /**
+     * Withdraw a backend that was {@link #register(LintEngineProvider) registered}.
+     * @return whether it had been registered.
+     */
+    public static synchronized boolean unregister(LintEngineProvider provider) {
+        return registered.remove(provider.getId()) == provider;
+    }
+
+    private static Map<String, LintEngineProvider> discovered() {
+        if (discovered == null) {
+            Map<String, LintEngineProvider> found = new LinkedHashMap<String, LintEngineProvider>();
+            found.put(DEFAULT, new RhinoLintEngineProvider());
+            Iterator<LintEngineProvider> providers = ServiceLoader.load(LintEngineProvider.class,
+                    LintEngines.class.getClassLoader()).iterator();
+            while (true) {
+                try {
+                    if (!providers.hasNext()) {
+                        break;
+                    }
+                    LintEngineProvider provider = providers.next();
+                    if (!found.containsKey(provider.getId())) {
+                        found.put(provider.getId(), provider);
+                    }
+                } catch (ServiceConfigurationError e) {
+                    // A backend that can't be loaded shouldn't stop the others from being found.
+                }
+            }
+            discovered = found;
+        }
+        return discovered;
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Java Flight Recorder event covering one phase of a build or lint. The plugin has to run on Java 7, so the event
+ * types are defined at run time through <code>jdk.jfr.EventFactory</code>, found by reflection. Where there is no JFR
+ * API, or a phase isn't enabled in the current recording, {@link #begin(Phase)} returns a shared event that does
+ * nothing, so the cost when nothing is recording is one check.
+ * <p>
+ * Use it as
+ *
+ * <pre>
+ * LintEvent event = LintEvent.begin(Phase.READ);
+ * // ... the work ...
+ * event.end();
+ * event.file(path, size, issues).commit();
+ * </pre>
+ *
+ * The duration is that between {@link #begin(Phase)} and {@link #end()}, so fields can be filled in later, once they
+ * are known. Each event is only used by one thread.
+ * @author leechwin1@gmail.com
+ */
+public final class LintEvent {
+
+    /** The phases that are recorded, each as its own event type. */
+    public enum Phase {
+        BUILD("Build", "A JSHint builder run, which finds the files to lint", true),
+        READ("Read", "Reading a file to lint", false),
+        LINT("Lint", "Running jshint over a source", false),
+        CONVERT("Convert", "Converting the issues jshint found to Java", false),
+        MARKERS("Markers", "Updating the problem markers of a file", false);
+
+        private final String label;
+        private final String description;
+        private final boolean build;
+        private Object factory;
+        private Object eventType;
+
+        private Phase(String label, String description, boolean build) {
+            this.label = label;
+            this.description = description;
+            this.build = build;
+        }
+    }
+
+    /** The prefix of the name of every event type. */
+    private static final String NAME_PREFIX = "com.leechwin.jshint.";
+
+    private static final LintEvent DISABLED = new LintEvent(null);
+
+    /** Reflected methods, all null if there is no usable JFR API. */
+    private static Method newEvent;
+    private static Method isEnabled;
+    private static Method beginMethod;
+    private static Method endMethod;
+    private static Method commitMethod;
+    private static Method setMethod;
+
+    private static volatile boolean available;
+
+    static {
+        try {
+            defineEvents();
+            available = true;
+        } catch (Exception e) {
+            // No JFR (Java 7 and 8), or not the API we expect.
+        } catch (LinkageError e) {
+            // Likewise.
+        }
+    }
+
+    /** The jdk.jfr.Event, or null if this event is not being recorded. */
+    private final Object event;
+
+    private LintEvent(Object event) {
+        this.event = event;
+    }
+
+    /**
+     * Start an event, if its phase is being recorded and the current thread's lints are
+     * {@link LintMetrics#isRecording() recorded}.
+     * @return the event, which does nothing if the phase isn't being recorded.
+     */
+    public static LintEvent begin(Phase phase) {
+        if (!available || !LintMetrics.isRecording()) {
+            return DISABLED;
+        }
+        try {
+            if (!(Boolean) isEnabled.invoke(phase.eventType)) {
+                return DISABLED;
+            }
+            Object event = newEvent.invoke(phase.factory);
+            beginMethod.invoke(event);
+            return new LintEvent(event);
+        } catch (Exception e) {
+            // Something unexpected about this JVM's JFR; don't keep trying.
+            available = false;
+            return DISABLED;
+        }
+    }
+
+    /**
+     * Set the fields of a {@link Phase#READ}, {@link Phase#LINT}, {@link Phase#CONVERT} or {@link Phase#MARKERS} event.
+     * @param path the file, or whatever name the source was linted under.
+     * @param size the size of the file in bytes, or of the source in characters.
+     * @param issues how many issues were found.
+     * @return this event.
+     */
+    public LintEvent file(String path, long size, int issues) {
+        return set(path, size, issues);
+    }
+
+    /**
+     * Set the fields of a {@link Phase#BUILD} event.
+     * @param kind "full" or "incremental".
+     * @param project the name of the project being built.
+     * @param files how many files the build queued to be linted.
+     * @return this event.
+     */
+    public LintEvent build(String kind, String project, int files) {
+        return set(kind, project, files);
+    }
+
+    /** Stop timing the event. Optional; {@link #commit()} ends it if this hasn't been called. */
+    public void end() {
+        invoke(endMethod);
+    }
+
+    /** Write the event to the recording. */
+    public void commit() {
+        invoke(commitMethod);
+    }
+
+    private LintEvent set(Object... values) {
+        if (event != null) {
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    setMethod.invoke(event, i, values[i]);
+                }
+            } catch (Exception e) {
+                available = false;
+            }
+        }
+        return this;
+    }
+
+    private void invoke(Method method) {
+        if (event != null) {
+            try {
+                method.invoke(event);
+            } catch (Exception e) {
+                available = false;
+            }
+        }
+    }
+
+    /** Create an event type for each phase with jdk.jfr.EventFactory. */
+    @SuppressWarnings("unchecked")
+    private static void defineEvents() throws Exception {
+        // Not the bundle's class loader, which might not see the jdk.jfr module under OSGi.
+        ClassLoader loader = ClassLoader.getSystemClassLoader();
+        Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory", true, loader);
+        Class<?> eventClass = Class.forName("jdk.jfr.Event", true, loader);
+        Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType", true, loader);
+        Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement", true, loader);
+        Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor", true, loader);
+        Class<? extends Annotation> name = (Class<? extends Annotation>) Class.forName("jdk.jfr.Name", true, loader);
+        Class<? extends Annotation> label = (Class<? extends Annotation>) Class.forName("jdk.jfr.Label", true, loader);
+        Class<? extends Annotation> description = (Class<? extends Annotation>) Class.forName("jdk.jfr.Description",
+                true, loader);
+        Class<? extends Annotation> category = (Class<? extends Annotation>) Class.forName("jdk.jfr.Category", true,
+                loader);
+        Class<? extends Annotation> stackTrace = (Class<? extends Annotation>) Class.forName("jdk.jfr.StackTrace",
+                true, loader);
+
+        Constructor<?> newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+        Constructor<?> newValue = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+        Method create = factoryClass.getMethod("create", List.class, List.class);
+        Method getEventType = factoryClass.getMethod("getEventType");
+
+        List<Object> fileFields = Arrays.asList(
+                newValue.newInstance(String.class, "path",
+                        Arrays.asList(newAnnotation.newInstance(label, "Path"))),
+                newValue.newInstance(long.class, "size",
+                        Arrays.asList(newAnnotation.newInstance(label, "Size"))),
+                newValue.newInstance(int.class, "issues",
+                        Arrays.asList(newAnnotation.newInstance(label, "Issues"))));
+        List<Object> buildFields = Arrays.asList(
+                newValue.newInstance(String.class, "kind",
+                        Arrays.asList(newAnnotation.newInstance(label, "Kind"))),
+                newValue.newInstance(String.class, "project",
+                        Arrays.asList(newAnnotation.newInstance(label, "Project"))),
+                newValue.newInstance(int.class, "files",
+                        Arrays.asList(newAnnotation.newInstance(label, "Files"))));
+
+        for (Phase phase : Phase.values()) {
+            List<Object> annotations = new ArrayList<Object>();
+            annotations.add(newAnnotation.newInstance(name, NAME_PREFIX + phase.label));
+            annotations.add(newAnnotation.newInstance(label, "JSHint " + phase.label));
+            annotations.add(newAnnotation.newInstance(description, phase.description));
+            annotations.add(newAnnotation.newInstance(category, new String[] { "JSHint" }));
+            // Stack traces would cost more than most of the phases themselves.
+            annotations.add(newAnnotation.newInstance(stackTrace, false));
+            phase.factory = create.invoke(null, annotations, phase.build ? buildFields : fileFields);
+            phase.eventType = getEventType.invoke(phase.factory);
+        }
+
+        newEvent = factoryClass.getMethod("newEvent");
+        isEnabled = eventTypeClass.getMethod("isEnabled");
+        beginMethod = eventClass.getMethod("begin");
+        endMethod = eventClass.getMethod("end");
+        commitMethod = eventClass.getMethod("commit");
+        setMethod = eventClass.getMethod("set", int.class, Object.class);
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.leechwin.jshint.eclipse.engine;
+
+/**
+ * How long a single lint may run before it is abandoned. A lint that runs over is reported as having timed out rather
+ * than holding up everything queued behind it.
+ * @author leechwin1@gmail.com
+ */
+public final class LintLimits {
+
+    /** No limits at all. */
+    public static final LintLimits NONE = new LintLimits(0, 0);
+
+    private final long timeoutMillis;
+
+    private final long maxInstructions;
+
+    /**
+     * @param timeoutMillis the wall clock time a lint may take, or zero for no limit.
+     * @param maxInstructions the number of JavaScript instructions a lint may run, or zero for no limit.
+     */
+    public LintLimits(long timeoutMillis, long maxInstructions) {
+        this.timeoutMillis = Math.max(0, timeoutMillis);
+        this.maxInstructions = Math.max(0, maxInstructions);
+    }
+
+    /**
+     * @return the wall clock time a lint may take, or zero for no limit.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * @return the number of JavaScript instructions a lint may run, or zero for no limit.
+     */
+    public long getMaxInstructions() {
+        return maxInstructions;
+    }
+
+    /**
+     * @return true if neither limit is set.
+     */
+    public boolean isUnlimited() {
+        return timeoutMillis == 0 && maxInstructions == 0;
+    }
+
+}
@@ -0,0 +1,241 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and histograms of where lint time goes, shared by everything in the JVM. Recording is cheap and lock free,
+ * apart from the list of slowest files, which is only locked when a lint is slower than the fastest one on it. The
+ * metrics can be read in-process through {@link #getInstance()}, or over JMX once {@link #OBJECT_NAME} is registered.
+ * @author leechwin1@gmail.com
+ */
+public final class LintMetrics implements LintMetricsMXBean {
+
+    /** The name to register the metrics under with an MBean server. */
+    public static final String OBJECT_NAME = "com.leechwin.jshint.eclipse:type=LintMetrics";
+
+    /** How many of the slowest lints to remember. */
+    private static final int SLOWEST = 10;
+
+    private static final LintMetrics instance = new LintMetrics();
+
+    /** Set on threads whose lints aren't {@link #setRecording(boolean) recorded}. */
+    private static final ThreadLocal<Boolean> unrecorded = new ThreadLocal<Boolean>();
+
+    private final LatencyHistogram engineCreation = new LatencyHistogram();
+    private final LatencyHistogram lint = new LatencyHistogram();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final LatencyHistogram read = new LatencyHistogram();
+    private final LatencyHistogram markers = new LatencyHistogram();
+
+    private final AtomicLong filesLinted = new AtomicLong();
+    private final AtomicLong charactersLinted = new AtomicLong();
+    private final AtomicLong filesRead = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    /** The slowest lints, slowest first. Guarded by this. */
+    private final String[] slowestPaths = new String[SLOWEST];
+    private final long[] slowestNanos = new long[SLOWEST];
+
+    /** The duration of the last entry in the slowest lints, so faster lints can skip the lock. */
+    private volatile long slowestCutoff;
+
+    private LintMetrics() {
+    }
+
+    /**
+     * @return the metrics of this JVM.
+     */
+    public static LintMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Choose whether lints run by the current thread are recorded, here and as {@link LintEvent}s. Lints that aren't
+     * real work, such as warming up, should not skew the figures. Engines they create are real, so engine creation is
+     * always recorded.
+     * @param recording false to stop recording the thread's lints, and true to start again.
+     */
+    public static void setRecording(boolean recording) {
+        if (recording) {
+            unrecorded.remove();
+        } else {
+            unrecorded.set(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @return whether lints run by the current thread are recorded.
+     */
+    public static boolean isRecording() {
+        return unrecorded.get() == null;
+    }
+
+    void engineCreated(long nanos) {
+        engineCreation.record(nanos);
+    }
+
+    void lockWaited(long nanos) {
+        lockWait.record(nanos);
+    }
+
+    /**
+     * Record a lint.
+     * @param path the name of the source, for the list of slowest files.
+     * @param characters the length of the source.
+     * @param nanos how long the lint took.
+     * @param timedOut whether the lint went over its budget.
+     */
+    void linted(String path, int characters, long nanos, boolean timedOut) {
+        lint.record(nanos);
+        filesLinted.incrementAndGet();
+        charactersLinted.addAndGet(characters);
+        if (timedOut) {
+            timeouts.incrementAndGet();
+        }
+        if (nanos > slowestCutoff) {
+            slow(path, nanos);
+        }
+    }
+
+    void cacheLookedUp(boolean hit) {
+        (hit ? cacheHits : cacheMisses).incrementAndGet();
+    }
+
+    /**
+     * Record the reading of a file.
+     * @param bytes the size of the file.
+     * @param nanos how long it took to read.
+     */
+    public void fileRead(long bytes, long nanos) {
+        read.record(nanos);
+        filesRead.incrementAndGet();
+        bytesRead.addAndGet(bytes);
+    }
+
+    /**
+     * Record an update of the markers of a batch of files.
+     * @param nanos how long the update took.
+     */
+    public void markersUpdated(long nanos) {
+        markers.record(nanos);
+    }
+
+    private synchronized void slow(String path, long nanos) {
+        // A file only appears once, with its slowest lint.
+        int end = SLOWEST - 1;
+        for (int i = 0; i < SLOWEST && slowestPaths[i] != null; i++) {
+            if (slowestPaths[i].equals(path)) {
+                if (nanos <= slowestNanos[i]) {
+                    return;
+                }
+                end = i;
+                break;
+            }
+        }
+        if (nanos <= slowestNanos[end]) {
+            return;
+        }
+        // Shift faster entries down over the one being replaced.
+        int i = end;
+        while (i > 0 && slowestNanos[i - 1] < nanos) {
+            slowestNanos[i] = slowestNanos[i - 1];
+            slowestPaths[i] = slowestPaths[i - 1];
+            i--;
+        }
+        slowestNanos[i] = nanos;
+        slowestPaths[i] = path;
+        slowestCutoff = slowestNanos[SLOWEST - 1];
+    }
+
+    public LatencyHistogram getEngineCreation() {
+        return engineCreation;
+    }
+
+    public LatencyHistogram getLint() {
+        return lint;
+    }
+
+    public LatencyHistogram getLockWait() {
+        return lockWait;
+    }
+
+    public LatencyHistogram getRead() {
+        return read;
+    }
+
+    public LatencyHistogram getMarkers() {
+        return markers;
+    }
+
+    public long getFilesLinted() {
+        return filesLinted.get();
+    }
+
+    public long getCharactersLinted() {
+        return charactersLinted.get();
+    }
+
+    public long getFilesRead() {
+        return filesRead.get();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    public double getCacheHitRate() {
+        long hits = cacheHits.get();
+        long lookups = hits + cacheMisses.get();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public synchronized String[] getSlowestFiles() {
+        int n = 0;
+        while (n < SLOWEST && slowestPaths[n] != null) {
+            n++;
+        }
+        String[] slowest = new String[n];
+        for (int i = 0; i < n; i++) {
+            slowest[i] = slowestPaths[i] + ": " + slowestNanos[i] / 1000000;
+        }
+        return slowest;
+    }
+
+    public void reset() {
+        engineCreation.reset();
+        lint.reset();
+        lockWait.reset();
+        read.reset();
+        markers.reset();
+        filesLinted.set(0);
+        charactersLinted.set(0);
+        filesRead.set(0);
+        bytesRead.set(0);
+        timeouts.set(0);
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        synchronized (this) {
+            for (int i = 0; i < SLOWEST; i++) {
+                slowestPaths[i] = null;
+                slowestNanos[i] = 0;
+            }
+            slowestCutoff = 0;
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.leechwin.jshint.eclipse.engine;
+
+/**
+ * The management interface of {@link LintMetrics}, as seen through JMX. Durations are in milliseconds.
+ * @author leechwin1@gmail.com
+ */
+public interface LintMetricsMXBean {
+
+    /** @return how long it takes to create an engine, including compiling jshint.js for the first one. */
+    LatencyHistogram getEngineCreation();
+
+    /** @return how long each lint takes, not counting the wait for the engine. */
+    LatencyHistogram getLint();
+
+    /** @return how long lints wait for an idle engine in their pool. */
+    LatencyHistogram getLockWait();
+
+    /** @return how long it takes to read each file. */
+    LatencyHistogram getRead();
+
+    /** @return how long it takes to update the markers of each batch of files. */
+    LatencyHistogram getMarkers();
+
+    /** @return how many sources have been linted. */
+    long getFilesLinted();
+
+    /** @return how many characters of source have been linted. */
+    long getCharactersLinted();
+
+    /** @return how many files have been read. */
+    long getFilesRead();
+
+    /** @return how many bytes of files have been read. */
+    long getBytesRead();
+
+    /** @return how many lints went over their time or instruction budget. */
+    long getTimeouts();
+
+    /** @return how many lookups in the result cache found a result. */
+    long getCacheHits();
+
+    /** @return how many lookups in the result cache found nothing. */
+    long getCacheMisses();
+
+    /** @return the fraction of cache lookups that found a result, or zero if there have been none. */
+    double getCacheHitRate();
+
+    /** @return the slowest lints so far, slowest first, as "path: milliseconds". */
+    String[] getSlowestFiles();
+
+    /** Forget everything recorded so far. */
+    void reset();
+
+}
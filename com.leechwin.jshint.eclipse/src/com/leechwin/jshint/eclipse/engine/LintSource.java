@@ -0,0 +1,152 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * JavaScript source code read into memory, together with the {@link LineIndex} of its lines.
+ * @author leechwin1@gmail.com
+ */
+public final class LintSource {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final char BOM = '\uFEFF';
+
+    private final String text;
+
+    private final LineIndex lines;
+
+    LintSource(String text, LineIndex lines) {
+        this.text = text;
+        this.lines = lines;
+    }
+
+    /**
+     * Read all of a {@link Reader} into memory, indexing its lines in the same pass.
+     */
+    public static LintSource read(Reader reader) throws IOException {
+        LineIndex.Builder lines = new LineIndex.Builder();
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[8192];
+        int n;
+        while ((n = reader.read(buf)) != -1) {
+            lines.scan(buf, 0, n);
+            sb.append(buf, 0, n);
+        }
+        return new LintSource(sb.toString(), lines.build());
+    }
+
+    /**
+     * Read a local file in bulk into the heap and decode it straight into a {@link String}. A byte order mark is
+     * skipped, and a UTF-8 one overrides {@code charset}.
+     * @param file the file to read.
+     * @param charset the encoding of the file.
+     */
+    public static LintSource read(File file, Charset charset) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to lint");
+            }
+            // Not memory mapped: a mapping stays open until it is garbage collected, which keeps the file locked on
+            // Windows and leaves its pages outside the heap.
+            ByteBuffer bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) != -1) {
+            }
+            bytes.flip();
+            return decode(bytes, charset);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Read all of a stream in bulk, for files that aren't stored locally. A byte order mark is skipped, and a UTF-8 one
+     * overrides {@code charset}.
+     * @param in the stream to read. It is not closed.
+     * @param charset the encoding of the stream.
+     * @param sizeHint the expected number of bytes, or zero if unknown.
+     */
+    public static LintSource read(InputStream in, Charset charset, int sizeHint) throws IOException {
+        byte[] buf = new byte[Math.max(sizeHint, 8192 - 1) + 1];
+        int length = 0;
+        int n;
+        while ((n = in.read(buf, length, buf.length - length)) != -1) {
+            length += n;
+            if (length == buf.length) {
+                byte[] grown = new byte[buf.length * 2];
+                System.arraycopy(buf, 0, grown, 0, length);
+                buf = grown;
+            }
+        }
+        return decode(ByteBuffer.wrap(buf, 0, length), charset);
+    }
+
+    /** Decode {@code bytes} into a buffer big enough for all of them, then index and copy it once into a string. */
+    private static LintSource decode(ByteBuffer bytes, Charset charset) throws CharacterCodingException {
+        if (bytes.remaining() >= 3 && (bytes.get(bytes.position()) & 0xff) == 0xef
+                && (bytes.get(bytes.position() + 1) & 0xff) == 0xbb && (bytes.get(bytes.position() + 2) & 0xff) == 0xbf) {
+            bytes.position(bytes.position() + 3);
+            charset = UTF8;
+        }
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate((int) (bytes.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+        while (true) {
+            CoderResult result = decoder.decode(bytes, chars, true);
+            if (result.isUnderflow()) {
+                result = decoder.flush(chars);
+            }
+            if (result.isUnderflow()) {
+                break;
+            } else if (result.isOverflow()) {
+                CharBuffer grown = CharBuffer.allocate(chars.capacity() * 2);
+                chars.flip();
+                grown.put(chars);
+                chars = grown;
+            } else {
+                result.throwException();
+            }
+        }
+
+        char[] array = chars.array();
+        int start = 0;
+        int end = chars.position();
+        if (end > 0 && array[0] == BOM) {
+            start = 1;
+        }
+        LineIndex.Builder lines = new LineIndex.Builder();
+        lines.scan(array, start, end);
+        return new LintSource(new String(array, start, end - start), lines.build());
+    }
+
+    /**
+     * @return the source code.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the index of the lines of the source code.
+     */
+    public LineIndex getLines() {
+        return lines;
+    }
+
+}
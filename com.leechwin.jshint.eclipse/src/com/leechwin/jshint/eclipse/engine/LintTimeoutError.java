@@ -0,0 +1,26 @@
+package com.leechwin.jshint.eclipse.engine;
+
+/**
+ * Thrown from inside Rhino when a lint goes over its {@link LintLimits}. This is an {@link Error} rather than an
+ * exception so that no <code>catch</code> or <code>finally</code> block in jshint.js gets control back.
+ * @author leechwin1@gmail.com
+ */
+public class LintTimeoutError extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long elapsedMillis;
+
+    public LintTimeoutError(String message, long elapsedMillis) {
+        super(message);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return how long the lint had run for when it was stopped.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+}
@@ -13,6 +13,14 @@ class OptionParser {
      * Attempt to parse <i>value</i> using the {@code valueOf(String)} method on <i>clazz</i>, should one exist.
      */
     public <T> T parse(Class<T> clazz, String value) {
+        // Avoid reflection for the types that options actually use.
+        if (clazz == Boolean.class) {
+            return clazz.cast(Boolean.valueOf(value));
+        } else if (clazz == Integer.class) {
+            return clazz.cast(Integer.valueOf(value));
+        } else if (clazz == String.class) {
+            return clazz.cast(value);
+        }
         try {
             Method method = clazz.getMethod("valueOf", String.class);
             // There's no contract for this, but in the cases we need it for, it
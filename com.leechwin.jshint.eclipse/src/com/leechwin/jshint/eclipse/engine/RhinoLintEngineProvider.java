@@ -0,0 +1,46 @@
+package com.leechwin.jshint.eclipse.engine;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The default backend, which runs the bundled jshint.js in Rhino through a {@link JsHintBuilder}.
+ * @author leechwin1@gmail.com
+ */
+public class RhinoLintEngineProvider implements LintEngineProvider {
+
+    /** The id of this backend. */
+    public static final String ID = "rhino";
+
+    /** A builder for each profile, so that they share their compiled jshint.js. */
+    private final Map<ExecutionProfile, JsHintBuilder> builders = new EnumMap<ExecutionProfile, JsHintBuilder>(
+            ExecutionProfile.class);
+
+    private volatile LintEngineCapabilities capabilities;
+
+    public String getId() {
+        return ID;
+    }
+
+    public LintEngineCapabilities getCapabilities() {
+        if (capabilities == null) {
+            capabilities = new LintEngineCapabilities("Rhino", builder(ExecutionProfile.DEFAULT).getVersion(), true,
+                    true);
+        }
+        return capabilities;
+    }
+
+    public LintEngine newEngine(ExecutionProfile profile) {
+        return builder(profile).fromDefault();
+    }
+
+    private synchronized JsHintBuilder builder(ExecutionProfile profile) {
+        JsHintBuilder builder = builders.get(profile);
+        if (builder == null) {
+            builder = new JsHintBuilder(profile);
+            builders.put(profile, builder);
+        }
+        return builder;
+    }
+
+}
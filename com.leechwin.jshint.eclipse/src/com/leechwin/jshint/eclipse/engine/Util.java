@@ -119,16 +119,17 @@ final class Util {
     }
 
     /**
-     * Read all of a {@link Reader} into memory as a {@link String}.
+     * Read all of a {@link Reader} into memory as a {@link String}, a block at a time.
      * @param reader
      * @return
      * @throws IOException
      */
     static String readerToString(Reader reader) throws IOException {
-        StringBuffer sb = new StringBuffer();
-        int c;
-        while ((c = reader.read()) != -1) {
-            sb.append((char) c);
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[8192];
+        int n;
+        while ((n = reader.read(buf)) != -1) {
+            sb.append(buf, 0, n);
         }
         return sb.toString();
     }
@@ -147,6 +148,19 @@ final class Util {
         return o instanceof String ? (String) o : null;
     }
 
+    /**
+     * Returns a JavaScript value as a Java string, or null if it is undefined. Strings built by concatenation are not
+     * {@link String} instances in Rhino, so they can't just be cast.
+     * @param o the JavaScript value.
+     * @return the value as a string, or null.
+     */
+    static String stringValue(Object o) {
+        if (o == null || o instanceof Undefined || o == UniqueTag.NOT_FOUND) {
+            return null;
+        }
+        return o instanceof CharSequence ? o.toString() : Context.toString(o);
+    }
+
     public static String[] split(final String str, final String delimiters) {
         final List<String> list = new ArrayList<String>();
         final StringTokenizer tokenizer = new StringTokenizer(str, delimiters);
@@ -1,13 +1,13 @@
 package com.leechwin.jshint.eclipse.preferences;
 
-import java.util.EnumSet;
-import java.util.Set;
-
 import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
 import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 
 import com.leechwin.jshint.eclipse.Activator;
+import com.leechwin.jshint.eclipse.engine.DefaultOptions;
+import com.leechwin.jshint.eclipse.engine.ExecutionProfile;
+import com.leechwin.jshint.eclipse.engine.LintEngines;
 import com.leechwin.jshint.eclipse.engine.Option;
 
 /**
@@ -16,23 +16,53 @@ import com.leechwin.jshint.eclipse.engine.Option;
 public class PreferencesInitializer extends AbstractPreferenceInitializer {
 
     public static final String PREDEF_ID = Activator.PLUGIN_ID + ".preference.predef";
-    public static final int DEFAULT_ESVERSION = 6;
-    public static final int DEFAULT_MAXERR = 100;
-    public static final int DEFAULT_MAXPARAMS = 5;
-
-    private final Set<Option> defaultEnable = EnumSet.of(Option.BITWISE, Option.CURLY, Option.EQEQEQ, Option.UNDEF, Option.UNUSED, Option.DEBUG, Option.MOZ,
-            Option.BROWSER, Option.DEVEL, Option.MOCHA, Option.NODE, Option.QUNIT);
+    public static final String POOL_SIZE_ID = Activator.PLUGIN_ID + ".preference.poolsize";
+    public static final String INCLUDE_PATHS_ID = Activator.PLUGIN_ID + ".preference.includepaths";
+    public static final String RECONCILE_ID = Activator.PLUGIN_ID + ".preference.reconcile";
+    public static final String LINT_TIMEOUT_ID = Activator.PLUGIN_ID + ".preference.linttimeout";
+    public static final String LINT_MAX_INSTRUCTIONS_ID = Activator.PLUGIN_ID + ".preference.lintmaxinstructions";
+    public static final String MINIFIED_MODE_ID = Activator.PLUGIN_ID + ".preference.minifiedmode";
+    public static final String MAX_FILE_SIZE_ID = Activator.PLUGIN_ID + ".preference.maxfilesize";
+    public static final String MAX_AVERAGE_LINE_ID = Activator.PLUGIN_ID + ".preference.maxaverageline";
+    public static final String MAX_LINE_ID = Activator.PLUGIN_ID + ".preference.maxline";
+    public static final String MINIFIED_MAXERR_ID = Activator.PLUGIN_ID + ".preference.minifiedmaxerr";
+    public static final String EXECUTION_PROFILE_ID = Activator.PLUGIN_ID + ".preference.executionprofile";
+    public static final String LINT_ENGINE_ID = Activator.PLUGIN_ID + ".preference.lintengine";
+    public static final int DEFAULT_ESVERSION = DefaultOptions.ESVERSION;
+    public static final int DEFAULT_MAXERR = DefaultOptions.MAXERR;
+    public static final int DEFAULT_MAXPARAMS = DefaultOptions.MAXPARAMS;
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_LINT_TIMEOUT = 30;
+    public static final int DEFAULT_LINT_MAX_INSTRUCTIONS = 0;
+    public static final String DEFAULT_MINIFIED_MODE = "syntax";
+    public static final int DEFAULT_MAX_FILE_SIZE = 1024;
+    public static final int DEFAULT_MAX_AVERAGE_LINE = 250;
+    public static final int DEFAULT_MAX_LINE = 10000;
+    public static final int DEFAULT_MINIFIED_MAXERR = 10;
+    public static final String DEFAULT_EXECUTION_PROFILE = ExecutionProfile.DEFAULT.getPreference();
+    public static final String DEFAULT_LINT_ENGINE = LintEngines.DEFAULT;
 
     @Override
     public void initializeDefaultPreferences() {
         IEclipsePreferences node = DefaultScope.INSTANCE.getNode(Activator.PLUGIN_ID);
-        for (Option o : defaultEnable) {
+        for (Option o : DefaultOptions.ENABLED) {
             node.putBoolean(o.getLowerName(), true);
         }
         // Hand code these.
         node.putInt(Option.ESVERSION.getLowerName(), DEFAULT_ESVERSION);
         node.putInt(Option.MAXERR.getLowerName(), DEFAULT_MAXERR);
         node.putInt(Option.MAXPARAMS.getLowerName(), DEFAULT_MAXPARAMS);
+        node.putInt(POOL_SIZE_ID, DEFAULT_POOL_SIZE);
+        node.putBoolean(RECONCILE_ID, true);
+        node.putInt(LINT_TIMEOUT_ID, DEFAULT_LINT_TIMEOUT);
+        node.putInt(LINT_MAX_INSTRUCTIONS_ID, DEFAULT_LINT_MAX_INSTRUCTIONS);
+        node.put(MINIFIED_MODE_ID, DEFAULT_MINIFIED_MODE);
+        node.putInt(MAX_FILE_SIZE_ID, DEFAULT_MAX_FILE_SIZE);
+        node.putInt(MAX_AVERAGE_LINE_ID, DEFAULT_MAX_AVERAGE_LINE);
+        node.putInt(MAX_LINE_ID, DEFAULT_MAX_LINE);
+        node.putInt(MINIFIED_MAXERR_ID, DEFAULT_MINIFIED_MAXERR);
+        node.put(EXECUTION_PROFILE_ID, DEFAULT_EXECUTION_PROFILE);
+        node.put(LINT_ENGINE_ID, DEFAULT_LINT_ENGINE);
     }
 
 }
@@ -0,0 +1,189 @@
+package com.leechwin.jshint.eclipse.ui;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IPropertyListener;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+import com.leechwin.jshint.eclipse.Activator;
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.builder.JsHintProvider;
+import com.leechwin.jshint.eclipse.builder.MinifiedFileFilter;
+import com.leechwin.jshint.eclipse.engine.Issue;
+import com.leechwin.jshint.eclipse.engine.JsHintConfig;
+import com.leechwin.jshint.eclipse.engine.JsHintResult;
+import com.leechwin.jshint.eclipse.engine.JsHintResultCache;
+import com.leechwin.jshint.eclipse.engine.LineIndex;
+import com.leechwin.jshint.eclipse.preferences.PreferencesInitializer;
+
+/**
+ * Lint the contents of an editor as the user types, and show the issues as temporary annotations. Keystrokes are
+ * coalesced by waiting for a pause in typing, and a document that hasn't changed since it was last linted isn't linted
+ * again. Lints go through the same {@link JsHintProvider} as the builder, so they share its engines, configuration and
+ * cached results, though the results of unsaved text are only kept in memory. Once the editor is saved the annotations are removed, as the builder's markers take over.
+ */
+public class DocumentLinter extends Job implements IDocumentListener, IPropertyListener {
+
+    /** The type of annotation used for issues. */
+    public static final String ANNOTATION_TYPE = "org.eclipse.ui.workbench.texteditor.warning";
+
+    /** How long to wait after the last keystroke before linting. */
+    private static final long DELAY = 500;
+
+    private final ITextEditor editor;
+
+    private final IFile file;
+
+    private final IDocument document;
+
+    private final IAnnotationModel model;
+
+    /** The modification stamp of the document when it was last linted. */
+    private long lintedStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+    /** The annotations currently in {@link #model}. Guarded by this. */
+    private Annotation[] annotations = new Annotation[0];
+
+    public DocumentLinter(ITextEditor editor, IFile file, IDocument document, IAnnotationModel model) {
+        super("JSHint " + file.getName());
+        this.editor = editor;
+        this.file = file;
+        this.document = document;
+        this.model = model;
+        setSystem(true);
+        setPriority(DECORATE);
+    }
+
+    /** Start listening to the editor. Called from the UI thread. */
+    public void install() {
+        document.addDocumentListener(this);
+        editor.addPropertyListener(this);
+        if (editor.isDirty()) {
+            schedule(DELAY);
+        }
+    }
+
+    /** @return the file being edited. */
+    public IFile getFile() {
+        return file;
+    }
+
+    /** Stop listening to the editor and remove the annotations. Called from the UI thread. */
+    public void dispose() {
+        document.removeDocumentListener(this);
+        editor.removePropertyListener(this);
+        cancel();
+        replaceAnnotations(new HashMap<Annotation, Position>());
+    }
+
+    public void documentAboutToBeChanged(DocumentEvent event) {
+    }
+
+    public void documentChanged(DocumentEvent event) {
+        // Put off the lint until typing pauses.
+        cancel();
+        schedule(DELAY);
+    }
+
+    public void propertyChanged(Object source, int propId) {
+        if (propId == IEditorPart.PROP_DIRTY && !editor.isDirty()) {
+            // Saved, or reverted; the markers on the file are up to date again.
+            cancel();
+            lintedStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+            replaceAnnotations(new HashMap<Annotation, Position>());
+        }
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        if (!Platform.getPreferencesService().getBoolean(Activator.PLUGIN_ID, PreferencesInitializer.RECONCILE_ID,
+                true, null)) {
+            replaceAnnotations(new HashMap<Annotation, Position>());
+            return Status.OK_STATUS;
+        }
+        long stamp = stampOf(document);
+        if (stamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP && stamp == lintedStamp) {
+            return Status.OK_STATUS;
+        }
+        String text = document.get();
+        if (stampOf(document) != stamp) {
+            // Changed while being read; the change has scheduled another run.
+            return Status.OK_STATUS;
+        }
+        LineIndex lines = LineIndex.of(text);
+        JsHintResult result;
+        try {
+            result = lint(text, lines);
+        } catch (IOException e) {
+            JsHintLog.error(e);
+            return Status.OK_STATUS;
+        }
+        if (monitor.isCanceled() || stampOf(document) != stamp) {
+            return Status.CANCEL_STATUS;
+        }
+
+        Map<Annotation, Position> added = new HashMap<Annotation, Position>();
+        if (result != null) {
+            for (Issue issue : result.getIssues()) {
+                int start = lines.offsetOf(issue.getLine(), issue.getCharacter());
+                if (start >= 0) {
+                    int length = lines.endOf(issue.getLine(), start, issue.getLength()) - start;
+                    added.put(new Annotation(ANNOTATION_TYPE, false, issue.getReason()), new Position(start, length));
+                }
+            }
+        }
+        replaceAnnotations(added);
+        lintedStamp = stamp;
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Lint {@code text} the way the builder would lint the file.
+     * @return the result, or null if the file is skipped as minified or oversized.
+     */
+    private JsHintResult lint(String text, LineIndex lines) throws IOException {
+        JsHintProvider provider = Activator.getDefault().getJsHintProvider();
+        MinifiedFileFilter filter = MinifiedFileFilter.fromPreferences(provider.getJsHintConfig());
+        MinifiedFileFilter.Kind kind = filter.classify(text.length(), lines);
+        JsHintConfig config = filter.configFor(kind);
+        if (config == null) {
+            return null;
+        }
+        String key = JsHintResultCache.key(text, config.getFingerprint());
+        JsHintResult result = provider.lintUnsaved(file.getFullPath().toString(), key, text, config);
+        if (kind != MinifiedFileFilter.Kind.NORMAL && filter.getMode() == MinifiedFileFilter.Mode.SYNTAX) {
+            result = result.errorsOnly();
+        }
+        return result;
+    }
+
+    private synchronized void replaceAnnotations(Map<Annotation, Position> added) {
+        ((IAnnotationModelExtension) model).replaceAnnotations(annotations, added);
+        annotations = added.keySet().toArray(new Annotation[added.size()]);
+    }
+
+    private static long stampOf(IDocument document) {
+        if (document instanceof IDocumentExtension4) {
+            return ((IDocumentExtension4) document).getModificationStamp();
+        }
+        return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.leechwin.jshint.eclipse.ui;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IWindowListener;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.texteditor.IDocumentProvider;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+import com.leechwin.jshint.eclipse.Activator;
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.builder.JsHintNature;
+import com.leechwin.jshint.eclipse.builder.LintQueue;
+import com.leechwin.jshint.eclipse.builder.LintScope;
+
+/**
+ * Keep a {@link DocumentLinter} attached to every open text editor on a JavaScript file in a project with the JSHint
+ * nature, unless the file is outside the {@link LintScope}, and tell the {@link LintQueue} which of those files are
+ * open and visible, so that it lints them first. Only used from the UI thread.
+ */
+public class EditorTracker implements IWindowListener, IPartListener2 {
+
+    private final Map<ITextEditor, DocumentLinter> linters = new HashMap<ITextEditor, DocumentLinter>();
+
+    /** The tracked editors that are currently visible. */
+    private final Set<ITextEditor> visible = new HashSet<ITextEditor>();
+
+    /** Start tracking the editors in every window of {@code workbench}, now and in future. */
+    public void install(IWorkbench workbench) {
+        workbench.addWindowListener(this);
+        for (IWorkbenchWindow window : workbench.getWorkbenchWindows()) {
+            windowOpened(window);
+        }
+    }
+
+    public void windowOpened(IWorkbenchWindow window) {
+        window.getPartService().addPartListener(this);
+        for (IWorkbenchPage page : window.getPages()) {
+            for (IEditorReference ref : page.getEditorReferences()) {
+                track(ref.getPart(false));
+            }
+        }
+    }
+
+    public void windowClosed(IWorkbenchWindow window) {
+        window.getPartService().removePartListener(this);
+    }
+
+    public void windowActivated(IWorkbenchWindow window) {
+    }
+
+    public void windowDeactivated(IWorkbenchWindow window) {
+    }
+
+    public void partOpened(IWorkbenchPartReference partRef) {
+        track(partRef.getPart(false));
+    }
+
+    public void partClosed(IWorkbenchPartReference partRef) {
+        untrack(partRef.getPart(false));
+    }
+
+    public void partInputChanged(IWorkbenchPartReference partRef) {
+        IWorkbenchPart part = partRef.getPart(false);
+        untrack(part);
+        track(part);
+    }
+
+    public void partActivated(IWorkbenchPartReference partRef) {
+    }
+
+    public void partBroughtToTop(IWorkbenchPartReference partRef) {
+    }
+
+    public void partDeactivated(IWorkbenchPartReference partRef) {
+    }
+
+    public void partHidden(IWorkbenchPartReference partRef) {
+        if (visible.remove(partRef.getPart(false))) {
+            editorsChanged();
+        }
+    }
+
+    public void partVisible(IWorkbenchPartReference partRef) {
+        IWorkbenchPart part = partRef.getPart(false);
+        if (linters.containsKey(part) && visible.add((ITextEditor) part)) {
+            editorsChanged();
+        }
+    }
+
+    private void track(IWorkbenchPart part) {
+        if (!(part instanceof ITextEditor) || linters.containsKey(part)) {
+            return;
+        }
+        ITextEditor editor = (ITextEditor) part;
+        IEditorInput input = editor.getEditorInput();
+        IFile file = input == null ? null : (IFile) input.getAdapter(IFile.class);
+        if (file == null || !file.getName().endsWith(".js") || !hasJsHintNature(file.getProject())) {
+            return;
+        }
+        // Leave alone the files that the builder wouldn't lint either.
+        if (!Activator.getDefault().getJsHintProvider().getLintScope().contains(file)) {
+            return;
+        }
+        IDocumentProvider provider = editor.getDocumentProvider();
+        IDocument document = provider.getDocument(input);
+        IAnnotationModel model = provider.getAnnotationModel(input);
+        if (document == null || !(model instanceof IAnnotationModelExtension)) {
+            return;
+        }
+        DocumentLinter linter = new DocumentLinter(editor, file, document, model);
+        linters.put(editor, linter);
+        linter.install();
+        if (editor.getSite().getPage().isPartVisible(editor)) {
+            visible.add(editor);
+        }
+        editorsChanged();
+    }
+
+    private void untrack(IWorkbenchPart part) {
+        DocumentLinter linter = linters.remove(part);
+        if (linter != null) {
+            visible.remove(part);
+            linter.dispose();
+            editorsChanged();
+        }
+    }
+
+    /** Tell the lint queue which files are open, and which are visible. */
+    private void editorsChanged() {
+        Set<IFile> openFiles = new HashSet<IFile>();
+        Set<IFile> visibleFiles = new HashSet<IFile>();
+        for (Map.Entry<ITextEditor, DocumentLinter> entry : linters.entrySet()) {
+            IFile file = entry.getValue().getFile();
+            openFiles.add(file);
+            if (visible.contains(entry.getKey())) {
+                visibleFiles.add(file);
+            }
+        }
+        LintQueue queue = Activator.getDefault().getJsHintProvider().getLintQueueJob().getQueue();
+        queue.editorsChanged(openFiles, visibleFiles);
+    }
+
+    private boolean hasJsHintNature(IProject project) {
+        try {
+            return project.isOpen() && project.hasNature(JsHintNature.NATURE_ID);
+        } catch (CoreException e) {
+            JsHintLog.error(e);
+            return false;
+        }
+    }
+
+}
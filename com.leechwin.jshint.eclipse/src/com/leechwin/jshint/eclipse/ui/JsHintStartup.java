@@ -0,0 +1,31 @@
+package com.leechwin.jshint.eclipse.ui;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ui.IStartup;
+
+import com.leechwin.jshint.eclipse.Activator;
+import com.leechwin.jshint.eclipse.JsHintLog;
+import com.leechwin.jshint.eclipse.builder.JsHintNature;
+
+/**
+ * Start linting open JavaScript editors as soon as the workbench is up, if any project has the JSHint nature.
+ * Otherwise nothing is set up until the builder first runs.
+ */
+public class JsHintStartup implements IStartup {
+
+    public void earlyStartup() {
+        for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+            try {
+                if (project.isOpen() && project.hasNature(JsHintNature.NATURE_ID)) {
+                    Activator.getDefault().startEditorTracking();
+                    return;
+                }
+            } catch (CoreException e) {
+                JsHintLog.error(e);
+            }
+        }
+    }
+
+}
@@ -3,6 +3,8 @@ package com.leechwin.jshint.eclipse.ui.preferences;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.ComboFieldEditor;
 import org.eclipse.jface.preference.FieldEditor;
 import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.PreferencePage;
@@ -23,6 +25,10 @@ import org.eclipse.ui.IWorkbenchPreferencePage;
 
 import com.leechwin.jshint.eclipse.Activator;
 import com.leechwin.jshint.eclipse.builder.Excluder;
+import com.leechwin.jshint.eclipse.builder.MinifiedFileFilter;
+import com.leechwin.jshint.eclipse.engine.ExecutionProfile;
+import com.leechwin.jshint.eclipse.engine.LintEngineProvider;
+import com.leechwin.jshint.eclipse.engine.LintEngines;
 import com.leechwin.jshint.eclipse.engine.Option;
 import com.leechwin.jshint.eclipse.preferences.PreferencesInitializer;
 
@@ -158,7 +164,50 @@ public class OptionsPreferencePage extends PreferencePage implements IWorkbenchP
         // Our own eclipse-specific preference.
         addFieldEditor(new StringFieldEditor(PreferencesInitializer.PREDEF_ID, Option.PREDEF.getDescription(), parent));
         addFieldEditor(new StringFieldEditor(Excluder.EXCLUDE_PATH_REGEXES_PREFERENCE,
-                "File patterns to exclude", parent));
+                "File patterns to exclude (regex or glob:)", parent));
+        addFieldEditor(new StringFieldEditor(PreferencesInitializer.INCLUDE_PATHS_ID,
+                "Folders to lint, comma separated (empty for all)", parent));
+        addFieldEditor(new IntegerFieldEditor(PreferencesInitializer.POOL_SIZE_ID,
+                "Number of files to lint in parallel", parent));
+        addFieldEditor(new BooleanFieldEditor(PreferencesInitializer.RECONCILE_ID,
+                "Lint JavaScript editors as you type", parent));
+        addFieldEditor(new IntegerFieldEditor(PreferencesInitializer.LINT_TIMEOUT_ID,
+                "Seconds a file may take to lint (0 for no limit)", parent));
+        addFieldEditor(new IntegerFieldEditor(PreferencesInitializer.LINT_MAX_INSTRUCTIONS_ID,
+                "Million instructions a file may take to lint (0 for no limit)", parent));
+        addFieldEditor(new ComboFieldEditor(PreferencesInitializer.LINT_ENGINE_ID, "JavaScript runtime",
+                engineEntries(), parent));
+        addFieldEditor(new ComboFieldEditor(PreferencesInitializer.EXECUTION_PROFILE_ID,
+                "JavaScript execution", new String[][] {
+                        { "Fast start (interpreted)", ExecutionProfile.FAST_START.getPreference() },
+                        { "Balanced", ExecutionProfile.BALANCED.getPreference() },
+                        { "Maximum throughput (fully optimized)", ExecutionProfile.MAX_THROUGHPUT.getPreference() } },
+                parent));
+        addFieldEditor(new ComboFieldEditor(PreferencesInitializer.MINIFIED_MODE_ID,
+                "Minified or oversized files", new String[][] {
+                        { "Skip", MinifiedFileFilter.Mode.SKIP.getPreference() },
+                        { "Check syntax only", MinifiedFileFilter.Mode.SYNTAX.getPreference() },
+                        { "Lint with reduced maxerr", MinifiedFileFilter.Mode.REDUCED.getPreference() } },
+                parent));
+        addFieldEditor(new IntegerFieldEditor(PreferencesInitializer.MAX_FILE_SIZE_ID,
+                "Oversized above (KB)", parent));
+        addFieldEditor(new IntegerFieldEditor(PreferencesInitializer.MAX_AVERAGE_LINE_ID,
+                "Minified above average line length", parent));
+        addFieldEditor(new IntegerFieldEditor(PreferencesInitializer.MAX_LINE_ID,
+                "Minified above longest line length", parent));
+        addFieldEditor(new IntegerFieldEditor(PreferencesInitializer.MINIFIED_MAXERR_ID,
+                "Reduced maxerr for minified files", parent));
+    }
+
+    /** The label and id of each available lint backend. */
+    private static String[][] engineEntries() {
+        List<LintEngineProvider> providers = LintEngines.getProviders();
+        String[][] entries = new String[providers.size()][];
+        for (int i = 0; i < entries.length; i++) {
+            LintEngineProvider provider = providers.get(i);
+            entries[i] = new String[] { provider.getCapabilities().getName(), provider.getId() };
+        }
+        return entries;
     }
 
     public void init(IWorkbench workbench) {